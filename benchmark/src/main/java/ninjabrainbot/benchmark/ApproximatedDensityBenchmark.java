@@ -0,0 +1,61 @@
+package ninjabrainbot.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ninjabrainbot.data.statistics.ApproximatedDensity;
+
+/**
+ * Time per density lookup, for chunks uniformly distributed in the stronghold
+ * domain.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ApproximatedDensityBenchmark {
+
+	private static final int NUM_LOOKUPS = 4096;
+
+	double[] coords;
+
+	@Setup
+	public void setup() {
+		ApproximatedDensity.init();
+		coords = BenchmarkInputs.chunkCoords(NUM_LOOKUPS);
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_LOOKUPS)
+	public double density() {
+		double sum = 0;
+		for (int i = 0; i < coords.length; i += 2) {
+			sum += ApproximatedDensity.density(coords[i], coords[i + 1]);
+		}
+		return sum;
+	}
+
+	@Benchmark
+	@OperationsPerInvocation(NUM_LOOKUPS)
+	public double cumulativePolar() {
+		double sum = 0;
+		for (int i = 0; i < coords.length; i += 2) {
+			sum += ApproximatedDensity.cumulativePolar(Math.abs(coords[i]));
+		}
+		return sum;
+	}
+
+}
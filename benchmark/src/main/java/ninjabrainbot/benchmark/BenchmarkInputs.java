@@ -0,0 +1,127 @@
+package ninjabrainbot.benchmark;
+
+import java.util.Locale;
+import java.util.Random;
+
+import ninjabrainbot.data.blind.BlindPosition;
+import ninjabrainbot.data.datalock.AlwaysUnlocked;
+import ninjabrainbot.data.endereye.StandardStdProfile;
+import ninjabrainbot.data.endereye.Throw;
+import ninjabrainbot.data.endereye.ThrowSet;
+import ninjabrainbot.data.stronghold.Ring;
+import ninjabrainbot.data.stronghold.StrongholdConstants;
+import ninjabrainbot.io.preferences.MultipleChoicePreferenceDataTypes.McVersion;
+import ninjabrainbot.io.preferences.NinjabrainBotPreferences;
+import ninjabrainbot.io.preferences.UnsavedPreferences;
+import ninjabrainbot.util.Logger;
+
+/**
+ * Generates realistic benchmark inputs from a fixed seed, so that results are
+ * comparable between runs and releases.
+ */
+public class BenchmarkInputs {
+
+	public static final long SEED = 20221117L;
+
+	private static final double THROW_ERROR_STD = 0.02; // degrees
+	private static final StandardStdProfile stdProfile;
+
+	static {
+		Logger.enabled = false;
+		stdProfile = new StandardStdProfile(new NinjabrainBotPreferences(new UnsavedPreferences()));
+	}
+
+	/**
+	 * Returns numSets throw sets with numThrows throws each. For each set a
+	 * stronghold is placed in one of the first three rings, the first throw is made
+	 * 600-2500 blocks away from it, and every following throw is made after moving
+	 * 100-400 blocks sideways.
+	 */
+	public static ThrowSet[] throwSets(int numSets, int numThrows) {
+		Random random = new Random(SEED + numThrows);
+		ThrowSet[] throwSets = new ThrowSet[numSets];
+		for (int i = 0; i < numSets; i++) {
+			double[] stronghold = randomStronghold(random);
+			double distance = 600 + 1900 * random.nextDouble();
+			double direction = 2 * Math.PI * random.nextDouble();
+			double x = stronghold[0] + distance * Math.cos(direction);
+			double z = stronghold[1] + distance * Math.sin(direction);
+			ThrowSet throwSet = new ThrowSet(new AlwaysUnlocked());
+			for (int j = 0; j < numThrows; j++) {
+				throwSet.add(createThrow(x, z, stronghold, random));
+				double sideways = (100 + 300 * random.nextDouble()) * (random.nextBoolean() ? 1 : -1);
+				x += -Math.sin(direction) * sideways;
+				z += Math.cos(direction) * sideways;
+			}
+			throwSets[i] = throwSet;
+		}
+		return throwSets;
+	}
+
+	/**
+	 * Returns F3+C strings for the throws in the given throw sets.
+	 */
+	public static String[] f3cStrings(ThrowSet[] throwSets) {
+		Random random = new Random(SEED);
+		int n = 0;
+		for (ThrowSet throwSet : throwSets)
+			n += throwSet.size();
+		String[] strings = new String[n];
+		int k = 0;
+		for (ThrowSet throwSet : throwSets) {
+			for (int i = 0; i < throwSet.size(); i++) {
+				String dimension = random.nextInt(4) == 0 ? "the_nether" : "overworld";
+				strings[k++] = String.format(Locale.US, "/execute in minecraft:%s run tp @s %.2f %.2f %.2f %.2f %.2f", dimension, throwSet.get(i).x(), 60 + 20 * random.nextDouble(), throwSet.get(i).z(),
+						throwSet.get(i).alpha(), -31 - random.nextDouble());
+			}
+		}
+		return strings;
+	}
+
+	/**
+	 * Returns nether coords where players typically blind travel from, 50-400
+	 * blocks from (0, 0).
+	 */
+	public static BlindPosition[] blindPositions(int n) {
+		Random random = new Random(SEED);
+		BlindPosition[] positions = new BlindPosition[n];
+		for (int i = 0; i < n; i++) {
+			double r = 50 + 350 * random.nextDouble();
+			double phi = 2 * Math.PI * random.nextDouble();
+			positions[i] = new BlindPosition(Math.round(r * Math.cos(phi) * 100) / 100.0, Math.round(r * Math.sin(phi) * 100) / 100.0);
+		}
+		return positions;
+	}
+
+	/**
+	 * Returns n chunk coords uniformly distributed in the stronghold domain, as
+	 * {x0, z0, x1, z1, ...}.
+	 */
+	public static double[] chunkCoords(int n) {
+		Random random = new Random(SEED);
+		double[] coords = new double[2 * n];
+		for (int i = 0; i < coords.length; i++) {
+			coords[i] = (2 * random.nextDouble() - 1) * StrongholdConstants.maxChunk;
+		}
+		return coords;
+	}
+
+	private static double[] randomStronghold(Random random) {
+		Ring ring = Ring.get(random.nextInt(3));
+		double r = ring.innerRadius + (ring.outerRadius - ring.innerRadius) * random.nextDouble();
+		double phi = 2 * Math.PI * random.nextDouble();
+		double offset = StrongholdConstants.getStrongholdChunkCoord(McVersion.PRE_119);
+		return new double[] { Math.floor(r * Math.cos(phi)) * 16 + offset, Math.floor(r * Math.sin(phi)) * 16 + offset };
+	}
+
+	private static Throw createThrow(double x, double z, double[] stronghold, Random random) {
+		x = Math.round(x * 100) / 100.0;
+		z = Math.round(z * 100) / 100.0;
+		double alpha = -Math.toDegrees(Math.atan2(stronghold[0] - x, stronghold[1] - z)) + THROW_ERROR_STD * random.nextGaussian();
+		alpha = Math.round(alpha * 100) / 100.0;
+		Throw t = new Throw(x, z, alpha, -31.5, false, new AlwaysUnlocked());
+		t.setStdProfile(stdProfile);
+		return t;
+	}
+
+}
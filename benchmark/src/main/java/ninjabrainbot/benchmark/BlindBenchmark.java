@@ -0,0 +1,60 @@
+package ninjabrainbot.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ninjabrainbot.data.blind.BlindPosition;
+import ninjabrainbot.data.blind.BlindResult;
+import ninjabrainbot.data.calculator.Calculator;
+import ninjabrainbot.data.datalock.AlwaysUnlocked;
+import ninjabrainbot.data.divine.DivineContext;
+import ninjabrainbot.data.divine.Fossil;
+import ninjabrainbot.data.statistics.ApproximatedDensity;
+
+/**
+ * Time to evaluate blind coords, cycling through a fixed set of nether coords.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class BlindBenchmark {
+
+	@Param({ "false", "true" })
+	boolean divine;
+
+	Calculator calculator;
+	BlindPosition[] positions;
+	int next;
+
+	@Setup
+	public void setup() {
+		ApproximatedDensity.init();
+		DivineContext divineContext = new DivineContext(new AlwaysUnlocked());
+		if (divine)
+			divineContext.setFossil(new Fossil(5));
+		calculator = new Calculator();
+		calculator.setDivineContext(divineContext);
+		positions = BenchmarkInputs.blindPositions(16);
+		next = 0;
+	}
+
+	@Benchmark
+	public BlindResult blind() {
+		return calculator.blind(positions[next++ & (positions.length - 1)]);
+	}
+
+}
@@ -0,0 +1,71 @@
+package ninjabrainbot.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ninjabrainbot.data.datalock.AlwaysUnlocked;
+import ninjabrainbot.data.endereye.IThrow;
+import ninjabrainbot.data.endereye.Throw;
+import ninjabrainbot.io.InputParser;
+
+/**
+ * Time to parse an F3+C string (the clipboard contents after every throw).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ParseF3CBenchmark {
+
+	String[] strings;
+	AlwaysUnlocked modificationLock;
+	InputParser parser;
+	int next;
+
+	@Setup
+	public void setup() {
+		strings = BenchmarkInputs.f3cStrings(BenchmarkInputs.throwSets(16, 4));
+		modificationLock = new AlwaysUnlocked();
+		parser = new InputParser();
+		next = 0;
+	}
+
+	@Benchmark
+	public IThrow parseF3C() {
+		return Throw.parseF3C(strings[next++ & (strings.length - 1)], 0, modificationLock);
+	}
+
+	/**
+	 * Parsing with a reused parser, without creating a Throw.
+	 */
+	@Benchmark
+	public double parseInPlace() {
+		parser.parse(strings[next++ & (strings.length - 1)]);
+		return parser.getX() + parser.getZ() + parser.getAlpha() + parser.getBeta();
+	}
+
+	/**
+	 * The previous parser, which split the string and parsed every substring, for
+	 * comparison.
+	 */
+	@Benchmark
+	public double parseSplit() {
+		String[] substrings = strings[next++ & (strings.length - 1)].split(" ");
+		if (substrings.length != 11)
+			return 0;
+		return Double.parseDouble(substrings[6]) + Double.parseDouble(substrings[8]) + Double.parseDouble(substrings[9]) + Double.parseDouble(substrings[10]);
+	}
+
+}
@@ -0,0 +1,60 @@
+package ninjabrainbot.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ninjabrainbot.data.datalock.AlwaysUnlocked;
+import ninjabrainbot.data.divine.DivineContext;
+import ninjabrainbot.data.endereye.ThrowSet;
+import ninjabrainbot.data.statistics.ApproximatedDensity;
+import ninjabrainbot.data.statistics.Posterior;
+import ninjabrainbot.io.preferences.MultipleChoicePreferenceDataTypes.McVersion;
+
+/**
+ * Time to construct a posterior from scratch, cycling through a fixed set of
+ * throw sets.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PosteriorBenchmark {
+
+	@Param({ "1", "2", "3", "4", "5" })
+	int numThrows;
+
+	@Param({ "false", "true" })
+	boolean useAdvStatistics;
+
+	ThrowSet[] throwSets;
+	DivineContext divineContext;
+	int next;
+
+	@Setup
+	public void setup() {
+		ApproximatedDensity.init();
+		throwSets = BenchmarkInputs.throwSets(16, numThrows);
+		divineContext = new DivineContext(new AlwaysUnlocked());
+		next = 0;
+	}
+
+	@Benchmark
+	public Posterior posterior() {
+		ThrowSet throwSet = throwSets[next++ & (throwSets.length - 1)];
+		return new Posterior(throwSet, divineContext, useAdvStatistics, McVersion.PRE_119);
+	}
+
+}
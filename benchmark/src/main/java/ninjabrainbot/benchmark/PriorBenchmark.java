@@ -0,0 +1,65 @@
+package ninjabrainbot.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import ninjabrainbot.data.datalock.AlwaysUnlocked;
+import ninjabrainbot.data.divine.DivineContext;
+import ninjabrainbot.data.divine.Fossil;
+import ninjabrainbot.data.statistics.ApproximatedDensity;
+import ninjabrainbot.data.statistics.ApproximatedPrior;
+import ninjabrainbot.data.statistics.Prior;
+
+/**
+ * Time to construct a prior around a chunk in the first ring (where the fossil
+ * affects the prior).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PriorBenchmark {
+
+	private static final int CENTER_X = 100;
+	private static final int CENTER_Z = -90;
+
+	@Param({ "10", "50" })
+	int radius;
+
+	@Param({ "false", "true" })
+	boolean divine;
+
+	DivineContext divineContext;
+
+	@Setup
+	public void setup() {
+		ApproximatedDensity.init();
+		divineContext = new DivineContext(new AlwaysUnlocked());
+		if (divine)
+			divineContext.setFossil(new Fossil(5));
+	}
+
+	@Benchmark
+	public Prior prior() {
+		return new Prior(CENTER_X, CENTER_Z, radius, divineContext);
+	}
+
+	@Benchmark
+	public Prior approximatedPrior() {
+		return new ApproximatedPrior(CENTER_X, CENTER_Z, radius, divineContext);
+	}
+
+}
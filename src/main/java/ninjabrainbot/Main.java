@@ -3,6 +3,7 @@ package ninjabrainbot;
 import java.util.Locale;
 
 import ninjabrainbot.data.statistics.ApproximatedDensity;
+import ninjabrainbot.data.statistics.PrecomputedPrior;
 import ninjabrainbot.gui.GUI;
 import ninjabrainbot.gui.splash.Progress;
 import ninjabrainbot.gui.splash.Splash;
@@ -29,6 +30,7 @@ public class Main {
 		Progress.setTask("Calculating approximated stronghold density", 0.04f);
 		Profiler.stopAndStart("Calculate approximated density");
 		ApproximatedDensity.init();
+		PrecomputedPrior.loadInBackground();
 
 		Progress.setTask("Starting keyboard listener", 0.07f);
 		Profiler.stopAndStart("Register keyboard listener");
@@ -2,9 +2,11 @@ package ninjabrainbot.data;
 
 import ninjabrainbot.data.blind.BlindPosition;
 import ninjabrainbot.data.blind.BlindResult;
+import ninjabrainbot.data.calculator.CalculatorResult;
 import ninjabrainbot.data.calculator.ICalculator;
 import ninjabrainbot.data.calculator.ICalculatorResult;
 import ninjabrainbot.data.calculator.ResultType;
+import ninjabrainbot.data.calculator.TriangulationExecutor;
 import ninjabrainbot.data.datalock.IModificationLock;
 import ninjabrainbot.data.datalock.LockableField;
 import ninjabrainbot.data.divine.DivineContext;
@@ -14,15 +16,19 @@ import ninjabrainbot.data.divine.IDivineContext;
 import ninjabrainbot.data.endereye.IThrow;
 import ninjabrainbot.data.endereye.IThrowSet;
 import ninjabrainbot.data.endereye.ThrowSet;
+import ninjabrainbot.data.endereye.ThrowSnapshot;
 import ninjabrainbot.data.stronghold.ChunkPrediction;
 import ninjabrainbot.event.IDisposable;
 import ninjabrainbot.event.IObservable;
 import ninjabrainbot.event.ObservableField;
 import ninjabrainbot.event.SubscriptionHandler;
+import ninjabrainbot.util.ISet;
 
 public class DataState implements IDataState, IDisposable {
 
 	private final ICalculator calculator;
+	private final TriangulationExecutor triangulationExecutor;
+	private final TriangulationExecutor blindExecutor;
 
 	private final ObservableField<Boolean> locked;
 
@@ -39,6 +45,19 @@ public class DataState implements IDataState, IDisposable {
 	private SubscriptionHandler sh = new SubscriptionHandler();
 
 	public DataState(ICalculator calculator, IModificationLock modificationLock) {
+		this(calculator, modificationLock, null, null);
+	}
+
+	/**
+	 * @param triangulationExecutor if not null, triangulations are done by the
+	 *                              executor and the results are published when
+	 *                              they are done, otherwise triangulations are
+	 *                              done on the calling thread.
+	 * @param blindExecutor         if not null, blind coords are searched for by
+	 *                              the executor, and the blind result is
+	 *                              published without them until they are found.
+	 */
+	public DataState(ICalculator calculator, IModificationLock modificationLock, TriangulationExecutor triangulationExecutor, TriangulationExecutor blindExecutor) {
 		divineContext = new DivineContext(modificationLock);
 		throwSet = new ThrowSet(modificationLock);
 
@@ -52,6 +71,8 @@ public class DataState implements IDataState, IDisposable {
 
 		calculator.setDivineContext(divineContext);
 		this.calculator = calculator;
+		this.triangulationExecutor = triangulationExecutor;
+		this.blindExecutor = blindExecutor;
 
 		// Subscriptions
 		sh.add(throwSet.whenModified().subscribe(__ -> recalculateStronghold()));
@@ -62,6 +83,8 @@ public class DataState implements IDataState, IDisposable {
 	public void reset() {
 		throwSet.clear();
 		playerPos.set(null);
+		if (blindExecutor != null)
+			blindExecutor.cancel();
 		blindResult.set(null);
 		divineResult.set(null);
 		divineContext.clear();
@@ -82,9 +105,24 @@ public class DataState implements IDataState, IDisposable {
 	}
 
 	public void recalculateStronghold() {
+		if (triangulationExecutor == null) {
+			setCalculatorResult(calculator.triangulate(throwSet, playerPos));
+			return;
+		}
+		if (throwSet.size() == 0) {
+			triangulationExecutor.cancel();
+			setCalculatorResult(null);
+			return;
+		}
+		ISet<IThrow> eyeThrows = ThrowSnapshot.snapshotOf(throwSet);
+		triangulationExecutor.submit(calculator.getPosteriorTask(eyeThrows), posterior -> setCalculatorResult(calculator.createResult(posterior, eyeThrows, playerPos)),
+				() -> setCalculatorResult(new CalculatorResult()));
+	}
+
+	private void setCalculatorResult(ICalculatorResult result) {
 		if (calculatorResult.get() != null)
 			calculatorResult.get().dispose();
-		calculatorResult.set(calculator.triangulate(throwSet, playerPos));
+		calculatorResult.set(result);
 		updateTopPrediction(calculatorResult.get());
 		updateResultType();
 	}
@@ -126,7 +164,14 @@ public class DataState implements IDataState, IDisposable {
 	}
 
 	void setBlindPosition(BlindPosition t) {
-		blindResult.set(calculator.blind(t));
+		if (blindExecutor == null) {
+			blindResult.set(calculator.blind(t));
+		} else {
+			blindResult.set(calculator.blind(t, false));
+			// If the search fails, the result without candidates is kept
+			blindExecutor.submit(calculator.getBlindTask(t), result -> blindResult.set(result), () -> {
+			});
+		}
 		updateResultType();
 	}
 
@@ -3,6 +3,7 @@ package ninjabrainbot.data;
 import ninjabrainbot.data.blind.BlindPosition;
 import ninjabrainbot.data.calculator.Calculator;
 import ninjabrainbot.data.calculator.CalculatorSettings;
+import ninjabrainbot.data.calculator.TriangulationExecutor;
 import ninjabrainbot.data.datalock.ILock;
 import ninjabrainbot.data.datalock.IModificationLock;
 import ninjabrainbot.data.datalock.ModificationLock;
@@ -20,6 +21,8 @@ public class DataStateHandler implements IDataStateHandler, IDisposable {
 
 	private final StandardStdProfile stdProfile;
 	private final CalculatorSettings calculatorSettings;
+	private final TriangulationExecutor triangulationExecutor;
+	private final TriangulationExecutor blindExecutor;
 
 	private DataState dataState;
 	private ModificationLock modificationLock;
@@ -29,17 +32,32 @@ public class DataStateHandler implements IDataStateHandler, IDisposable {
 	private SubscriptionHandler sh = new SubscriptionHandler();
 
 	public DataStateHandler(NinjabrainBotPreferences preferences) {
+		this(preferences, false);
+	}
+
+	/**
+	 * @param asyncTriangulation if true, triangulations and blind coord searches
+	 *                           are done on separate threads, so that new input
+	 *                           is handled without waiting for the previous
+	 *                           calculation to finish.
+	 */
+	public DataStateHandler(NinjabrainBotPreferences preferences, boolean asyncTriangulation) {
 		this.stdProfile = new StandardStdProfile(preferences);
 		modificationLock = new ModificationLock(wasUndoAction -> afterDataStateModified(wasUndoAction));
 
 		calculatorSettings = new CalculatorSettings();
 		calculatorSettings.useAdvStatistics = preferences.useAdvStatistics.get();
 		calculatorSettings.version = preferences.mcVersion.get();
-		dataState = new DataState(new Calculator(calculatorSettings), modificationLock);
+		calculatorSettings.maxDiscardedProbability = getMaxDiscardedProbability(preferences.discardNegligibleChunks.get());
+		Calculator calculator = new Calculator(calculatorSettings);
+		triangulationExecutor = asyncTriangulation ? new TriangulationExecutor(publish -> onTriangulationFinished(publish)) : null;
+		blindExecutor = asyncTriangulation ? new TriangulationExecutor("Blind search", publish -> onTriangulationFinished(publish)) : null;
+		dataState = new DataState(calculator, modificationLock, triangulationExecutor, blindExecutor);
 		dataStateUndoHistory = new DataStateUndoHistory(dataState.getUndoData(), 10);
 
 		sh.add(preferences.useAdvStatistics.whenModified().subscribe(newValue -> onUseAdvStatisticsChanged(newValue)));
 		sh.add(preferences.mcVersion.whenModified().subscribe(newValue -> onMcVersionChanged(newValue)));
+		sh.add(preferences.discardNegligibleChunks.whenModified().subscribe(newValue -> onDiscardNegligibleChunksChanged(newValue)));
 	}
 
 	@Override
@@ -144,6 +162,15 @@ public class DataStateHandler implements IDataStateHandler, IDisposable {
 		}
 	}
 
+	private synchronized void onTriangulationFinished(Runnable publish) {
+		try (ILock lock = modificationLock.acquireWritePermission()) {
+			// Publishing a result does not change the undo data, so it should not create
+			// a new undo entry
+			lock.setUndoAction();
+			publish.run();
+		}
+	}
+
 	private synchronized void setFossil(Fossil f) {
 		try (ILock lock = modificationLock.acquireWritePermission()) {
 			dataState.setFossil(f);
@@ -157,6 +184,17 @@ public class DataStateHandler implements IDataStateHandler, IDisposable {
 		}
 	}
 
+	private synchronized void onDiscardNegligibleChunksChanged(boolean newValue) {
+		calculatorSettings.maxDiscardedProbability = getMaxDiscardedProbability(newValue);
+		try (ILock lock = modificationLock.acquireWritePermission()) {
+			dataState.recalculateStronghold();
+		}
+	}
+
+	private static double getMaxDiscardedProbability(boolean discardNegligibleChunks) {
+		return discardNegligibleChunks ? CalculatorSettings.DISCARDED_PROBABILITY_WHEN_ENABLED : 0;
+	}
+
 	private synchronized void onMcVersionChanged(McVersion newValue) {
 		calculatorSettings.version = newValue;
 		try (ILock lock = modificationLock.acquireWritePermission()) {
@@ -192,6 +230,10 @@ public class DataStateHandler implements IDataStateHandler, IDisposable {
 	@Override
 	public void dispose() {
 		sh.dispose();
+		if (triangulationExecutor != null)
+			triangulationExecutor.dispose();
+		if (blindExecutor != null)
+			blindExecutor.dispose();
 	}
 
 }
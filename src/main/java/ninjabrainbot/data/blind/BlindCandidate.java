@@ -0,0 +1,19 @@
+package ninjabrainbot.data.blind;
+
+/**
+ * Blind coords that have been suggested to the player, in nether coords.
+ */
+public class BlindCandidate extends BlindPosition {
+
+	public final double highrollProbability;
+	public final double travelDistance;
+	public final double avgDistance; // Overworld blocks
+
+	public BlindCandidate(double x, double z, double highrollProbability, double travelDistance, double avgDistance) {
+		super(x, z);
+		this.highrollProbability = highrollProbability;
+		this.travelDistance = travelDistance;
+		this.avgDistance = avgDistance;
+	}
+
+}
@@ -1,5 +1,7 @@
 package ninjabrainbot.data.blind;
 
+import java.util.List;
+
 import ninjabrainbot.data.stronghold.Ring;
 import ninjabrainbot.util.Pair;
 
@@ -14,6 +16,7 @@ public class BlindResult {
 	public final double improveDirection;
 	public final double improveDistance;
 	public final double optHighrollProb;
+	public final List<BlindCandidate> candidates;
 
 	public static final Pair<Float, String> EXCELLENT = new Pair<Float, String>(1.0f, "blind_excellent");
 	public static final Pair<Float, String> HIGHROLL_GOOD = new Pair<Float, String>(0.9f, "blind_good_highroll");
@@ -26,7 +29,7 @@ public class BlindResult {
 	 * Creates a blind result.
 	 */
 	public BlindResult(double x, double z, double highrollProbability, double highrollThreshold, double avgDistance, double avgDistanceDerivative, double ninetiethPercentileDerivative, double improveDirection, double improveDistance,
-			double optHighrollProb) {
+			double optHighrollProb, List<BlindCandidate> candidates) {
 		this.x = x;
 		this.z = z;
 		this.highrollProbability = highrollProbability;
@@ -37,6 +40,7 @@ public class BlindResult {
 		this.optHighrollProb = optHighrollProb;
 		this.improveDistance = improveDistance;
 		this.improveDirection = improveDirection;
+		this.candidates = candidates;
 	}
 
 	public Pair<Float, String> evaluation() {
@@ -0,0 +1,192 @@
+package ninjabrainbot.data.calculator;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+import ninjabrainbot.data.blind.BlindCandidate;
+import ninjabrainbot.data.divine.Fossil;
+import ninjabrainbot.data.statistics.PriorIndex;
+import ninjabrainbot.util.Coords;
+
+/**
+ * Searches for the blind coords within a travel budget of the player that are
+ * best according to a BlindObjective. The budget is sampled on a coarse grid,
+ * and the best separated grid points are refined with a pattern search, one
+ * start per task on the common fork join pool. The highroll probability is
+ * looked up in a PriorIndex, and the average distance is integrated by a
+ * BlindDistanceEvaluator, so that each sample costs a few microseconds.
+ */
+class BlindCoordinateSearch {
+
+	private static final int GRID_POINTS_PER_RADIUS = 4;
+	private static final int NUM_STARTS = 6;
+	private static final double MIN_STEP = 1; // Nether blocks
+	// Fraction of the highroll probability that is lost by travelling the whole
+	// budget, so that closer coords are preferred if the probability is the same
+	static final double TRAVEL_PENALTY = 0.05;
+
+	private final PriorIndex priorIndex;
+	private final BlindObjective blindObjective;
+	private final double budget;
+	private final double spacing;
+
+	/**
+	 * @param budget the maximum distance from the player to a candidate, in nether
+	 *               blocks.
+	 */
+	BlindCoordinateSearch(Fossil fossil, boolean approximated, double budget) {
+		this(fossil, approximated, budget, BlindObjective.HIGHROLL_PROBABILITY);
+	}
+
+	/**
+	 * @param budget the maximum distance from the player to a candidate, in nether
+	 *               blocks.
+	 */
+	BlindCoordinateSearch(Fossil fossil, boolean approximated, double budget, BlindObjective blindObjective) {
+		PriorIndex index = PriorIndex.get(fossil, approximated);
+		// The exact prior has no index if there is a fossil, but the approximated
+		// prior is close enough to decide where to go
+		priorIndex = index != null ? index : PriorIndex.get(fossil, true);
+		this.blindObjective = blindObjective;
+		this.budget = budget;
+		spacing = budget / GRID_POINTS_PER_RADIUS;
+	}
+
+	/**
+	 * Returns at most numCandidates coords within the budget of the given nether
+	 * coords, in order of decreasing objective. Candidates are at least one grid
+	 * spacing apart.
+	 */
+	List<BlindCandidate> search(double x, double z, int numCandidates) {
+		BlindDistanceEvaluator distanceEvaluator = new BlindDistanceEvaluator();
+		List<double[]> starts = selectStarts(x, z, distanceEvaluator);
+		List<Callable<double[]>> tasks = new ArrayList<Callable<double[]>>();
+		for (double[] start : starts) {
+			tasks.add(() -> refine(x, z, start, new BlindDistanceEvaluator()));
+		}
+		List<double[]> refined = new ArrayList<double[]>();
+		try {
+			for (Future<double[]> future : ForkJoinPool.commonPool().invokeAll(tasks)) {
+				refined.add(future.get());
+			}
+		} catch (InterruptedException | ExecutionException e) {
+			// Fall back to the unrefined starts
+			refined = starts;
+		}
+		refined.sort(Comparator.comparingDouble((double[] p) -> p[2]).reversed());
+		List<double[]> separated = selectSeparated(refined, numCandidates, spacing);
+		List<BlindCandidate> candidates = new ArrayList<BlindCandidate>();
+		for (double[] p : separated) {
+			candidates.add(new BlindCandidate(p[0], p[1], highrollProbability(p[0], p[1]), Coords.dist(x, z, p[0], p[1]), averageDistance(p[0], p[1], distanceEvaluator)));
+		}
+		return candidates;
+	}
+
+	/**
+	 * Returns the NUM_STARTS best grid points within the budget that are further
+	 * than one grid spacing apart, as {x, z, objective}.
+	 */
+	private List<double[]> selectStarts(double x, double z, BlindDistanceEvaluator distanceEvaluator) {
+		List<double[]> grid = new ArrayList<double[]>();
+		for (int i = -GRID_POINTS_PER_RADIUS; i <= GRID_POINTS_PER_RADIUS; i++) {
+			for (int j = -GRID_POINTS_PER_RADIUS; j <= GRID_POINTS_PER_RADIUS; j++) {
+				if (i * i + j * j > GRID_POINTS_PER_RADIUS * GRID_POINTS_PER_RADIUS)
+					continue;
+				double px = x + i * spacing;
+				double pz = z + j * spacing;
+				grid.add(new double[] { px, pz, objective(x, z, px, pz, distanceEvaluator) });
+			}
+		}
+		grid.sort(Comparator.comparingDouble((double[] p) -> p[2]).reversed());
+		return selectSeparated(grid, NUM_STARTS, spacing * 1.5);
+	}
+
+	private static List<double[]> selectSeparated(List<double[]> sortedPoints, int n, double minSeparation) {
+		List<double[]> selected = new ArrayList<double[]>();
+		for (double[] p : sortedPoints) {
+			if (selected.size() == n)
+				break;
+			boolean separated = true;
+			for (double[] q : selected) {
+				if (Coords.dist(p[0], p[1], q[0], q[1]) < minSeparation) {
+					separated = false;
+					break;
+				}
+			}
+			if (separated)
+				selected.add(p);
+		}
+		return selected;
+	}
+
+	/**
+	 * Pattern search from the given start, moving to the best of the 8 neighbours
+	 * at the current step size until none of them is better, then halving the
+	 * step size. Returns {x, z, objective}.
+	 */
+	private double[] refine(double x, double z, double[] start, BlindDistanceEvaluator distanceEvaluator) {
+		double bestX = start[0];
+		double bestZ = start[1];
+		double best = start[2];
+		double step = spacing / 2;
+		while (step >= MIN_STEP) {
+			double nextX = bestX;
+			double nextZ = bestZ;
+			double next = best;
+			for (int i = -1; i <= 1; i++) {
+				for (int j = -1; j <= 1; j++) {
+					if (i == 0 && j == 0)
+						continue;
+					double px = bestX + i * step;
+					double pz = bestZ + j * step;
+					if (Coords.dist(x, z, px, pz) > budget)
+						continue;
+					double value = objective(x, z, px, pz, distanceEvaluator);
+					if (value > next) {
+						nextX = px;
+						nextZ = pz;
+						next = value;
+					}
+				}
+			}
+			if (next > best) {
+				bestX = nextX;
+				bestZ = nextZ;
+				best = next;
+			} else {
+				step /= 2;
+			}
+		}
+		return new double[] { bestX, bestZ, best };
+	}
+
+	/**
+	 * Returns the objective of moving from (x, z) to (px, pz), higher is better.
+	 */
+	private double objective(double x, double z, double px, double pz, BlindDistanceEvaluator distanceEvaluator) {
+		switch (blindObjective) {
+		case EXPECTED_DISTANCE:
+			return -(Coords.dist(x, z, px, pz) + averageDistance(px, pz, distanceEvaluator));
+		default:
+			return highrollProbability(px, pz) * (1 - TRAVEL_PENALTY * Coords.dist(x, z, px, pz) / budget);
+		}
+	}
+
+	/**
+	 * Returns the average distance from the given nether coords to the closest
+	 * stronghold, in overworld blocks.
+	 */
+	private static double averageDistance(double x, double z, BlindDistanceEvaluator distanceEvaluator) {
+		return distanceEvaluator.getAverageDistance(x, z, 10, 20) * 16;
+	}
+
+	private double highrollProbability(double x, double z) {
+		return BlindEvaluator.getHighrollProbability(priorIndex, x, z, BlindEvaluator.DISTANCE_THRESHOLD);
+	}
+
+}
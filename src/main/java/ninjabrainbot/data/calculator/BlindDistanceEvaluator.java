@@ -0,0 +1,128 @@
+package ninjabrainbot.data.calculator;
+
+import ninjabrainbot.data.stronghold.Ring;
+import ninjabrainbot.util.Pair;
+
+/**
+ * Calculates the expected distance to the closest stronghold from blind coords.
+ * All intermediate results are kept in fixed size primitive buffers, so that no
+ * objects are allocated per evaluated stronghold position. Not thread safe,
+ * every thread needs its own instance.
+ */
+class BlindDistanceEvaluator {
+
+	private static final int NUM_OTHER_STRONGHOLDS = 5;
+
+	// Uniform distance distributions [min, max) of the non-closest strongholds
+	private final double[] min = new double[NUM_OTHER_STRONGHOLDS];
+	private final double[] max = new double[NUM_OTHER_STRONGHOLDS];
+	private int numDistributions;
+	private final double[] discontinuities = new double[2 * NUM_OTHER_STRONGHOLDS + 1];
+
+	/**
+	 * Returns the average distance (in chunks) to the closest stronghold from the
+	 * given nether coords, integrated over a polar grid with the given resolution
+	 * (in chunks).
+	 */
+	double getAverageDistance(double netherX, double netherZ, double rdPhi, double dR) {
+		Pair<Ring, Ring> rings = Ring.getClosestRings(netherX / 2.0, netherZ / 2.0);
+		Ring ring = rings.fst;
+		Ring ring2 = rings.snd;
+		double sectionAngle = 2 * Math.PI / ring.numStrongholds;
+		double sectionAngle2 = 2 * Math.PI / ring2.numStrongholds;
+		double ringThickness = ring.outerRadius - ring.innerRadius;
+		double dPhi = rdPhi / ring.innerRadius;
+		int nPhi = (int) (sectionAngle / dPhi);
+		dPhi = sectionAngle / nPhi;
+		int nR = (int) (ringThickness / dR);
+		dR = ringThickness / nR;
+		double phi0 = -Math.atan2(netherX, netherZ);
+		double z = netherZ / 2.0; // Chunk
+		double x = netherX / 2.0; // Chunk
+		double integral = 0;
+		for (int i = 0; i < nPhi; i++) {
+			double phi = phi0 - sectionAngle / 2.0 + i * dPhi;
+			int i2 = i % 5 - 2;
+			double phi2 = phi0 + i2 / 5.0 * sectionAngle2;
+			for (int j = 0; j < nR; j++) {
+				double r = ring.innerRadius + (j + 0.5) * dR;
+				double d = distance(x, z, phi, r);
+				// Approximate the non-closest strongholds using uniform distributions,
+				// works well if they are far, which they should be if they are not the closest
+				// stronghold
+				numDistributions = 0;
+				addStrongholdDistr(x, z, phi + sectionAngle, ring);
+				addStrongholdDistr(x, z, phi - sectionAngle, ring);
+				addStrongholdDistr(x, z, phi2, ring2);
+				addStrongholdDistr(x, z, phi2 + sectionAngle2, ring2);
+				addStrongholdDistr(x, z, phi2 - sectionAngle2, ring2);
+				integral += expectedDistanceToClosest(d) / (nPhi * nR);
+			}
+		}
+		return integral;
+	}
+
+	private void addStrongholdDistr(double x, double z, double phi, Ring ring) {
+		double a = distance(x, z, phi, ring.innerRadius);
+		double b = distance(x, z, phi, ring.outerRadius);
+		min[numDistributions] = a < b ? a : b;
+		max[numDistributions] = a < b ? b : a;
+		numDistributions++;
+	}
+
+	/**
+	 * Returns the expected distance to the closest stronghold, given that the
+	 * closest stronghold in the evaluated sector is at distance maxDist and the
+	 * other strongholds are distributed as added by addStrongholdDistr().
+	 */
+	private double expectedDistanceToClosest(double maxDist) {
+		int n = 0;
+		for (int k = 0; k < numDistributions; k++) {
+			if (min[k] < maxDist) {
+				discontinuities[n++] = min[k];
+				if (max[k] < maxDist)
+					discontinuities[n++] = max[k];
+			}
+		}
+		discontinuities[n++] = maxDist;
+		// Insertion sort, there are at most 11 discontinuities
+		for (int k = 1; k < n; k++) {
+			double value = discontinuities[k];
+			int l = k - 1;
+			while (l >= 0 && discontinuities[l] > value) {
+				discontinuities[l + 1] = discontinuities[l];
+				l--;
+			}
+			discontinuities[l + 1] = value;
+		}
+		double cumulativeProb = 0;
+		double expectedDistance = 0;
+		for (int j = 1; j < n; j++) {
+			double lower = discontinuities[j - 1];
+			double upper = discontinuities[j];
+			double center = (lower + upper) / 2.0;
+			double complementaryProb = 1.0;
+			double numInInterval = 0;
+			for (int k = 0; k < numDistributions; k++) {
+				if (center > min[k] && center < max[k]) {
+					// Distribution is in interval
+					complementaryProb *= (max[k] - upper) / (max[k] - lower);
+					numInInterval += (upper - lower) / (max[k] - lower);
+				}
+			}
+			double prob = (1.0 - cumulativeProb) * (1.0 - complementaryProb);
+			cumulativeProb += prob;
+			double ev = (upper + numInInterval * lower) / (numInInterval + 1); // Approximation
+			expectedDistance += prob * ev;
+		}
+		double averageDistance = cumulativeProb > 0 ? expectedDistance / cumulativeProb : 0;
+		return maxDist * (1.0 - cumulativeProb) + averageDistance * cumulativeProb;
+	}
+
+	private static double distance(double x, double z, double phi, double r) {
+		double dx = x + r * Math.sin(phi);
+		double dz = z - r * Math.cos(phi);
+		return Math.sqrt(dx * dx + dz * dz);
+	}
+
+}
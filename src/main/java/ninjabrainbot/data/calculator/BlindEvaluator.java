@@ -0,0 +1,92 @@
+package ninjabrainbot.data.calculator;
+
+import ninjabrainbot.data.divine.IDivineContext;
+import ninjabrainbot.data.statistics.ApproximatedPrior;
+import ninjabrainbot.data.statistics.Prior;
+import ninjabrainbot.data.statistics.PriorIndex;
+import ninjabrainbot.data.stronghold.Chunk;
+
+/**
+ * Calculates the features of blind coords that depend smoothly on the position,
+ * i.e. everything in a BlindResult except the direction to the optimal coords.
+ * Not thread safe, every thread needs its own instance.
+ */
+class BlindEvaluator {
+
+	static final int DISTANCE_THRESHOLD = 400;
+
+	static final int HIGHROLL_PROBABILITY = 0;
+	static final int AVERAGE_DISTANCE = 1; // In chunks
+	static final int AVERAGE_DISTANCE_DERIVATIVE = 2;
+	static final int NINETIETH_PERCENTILE_DERIVATIVE = 3;
+	static final int NUM_FEATURES = 4;
+
+	private final IDivineContext divineContext;
+	private final boolean approximated;
+	private final BlindDistanceEvaluator distanceEvaluator = new BlindDistanceEvaluator();
+
+	BlindEvaluator(IDivineContext divineContext, boolean approximated) {
+		this.divineContext = divineContext;
+		this.approximated = approximated;
+	}
+
+	/**
+	 * Writes the features of the given nether coords to features[offset] to
+	 * features[offset + NUM_FEATURES - 1].
+	 */
+	void evaluate(double x, double z, double[] features, int offset) {
+		int h = 2;
+		double phi_p = -Math.atan2(x, z);
+		double probability = getHighrollProbability(x, z, DISTANCE_THRESHOLD);
+		// difference in x direction
+		int deltaX1 = h;
+		int deltaZ1 = 0;
+		double probability1 = getHighrollProbability(x + deltaX1, z + deltaZ1, DISTANCE_THRESHOLD);
+		double probabilityDerivative1 = (probability1 - probability) / Math.sqrt(deltaX1 * deltaX1 + deltaZ1 * deltaZ1);
+		// difference in z direction
+		int deltaX2 = deltaZ1;
+		int deltaZ2 = -deltaX1;
+		double probability2 = getHighrollProbability(x + deltaX2, z + deltaZ2, DISTANCE_THRESHOLD);
+		double probabilityDerivative2 = (probability2 - probability) / Math.sqrt(deltaX1 * deltaX1 + deltaZ1 * deltaZ1);
+		double probabilityDerivative = Math.sqrt(probabilityDerivative1 * probabilityDerivative1 + probabilityDerivative2 * probabilityDerivative2);
+		double ninetiethPercentileDerivative = probabilityDerivative * Math.sqrt(0.1 / (2 * probability * probability * probability)) * DISTANCE_THRESHOLD;
+		double avgDist = distanceEvaluator.getAverageDistance(x, z, 10, 20);
+		double avgDist2 = distanceEvaluator.getAverageDistance(x - h * Math.sin(phi_p), z + h * Math.cos(phi_p), 10, 20);
+		double avgDistDerivative = (avgDist2 - avgDist) / h;
+		features[offset + HIGHROLL_PROBABILITY] = probability;
+		features[offset + AVERAGE_DISTANCE] = avgDist;
+		features[offset + AVERAGE_DISTANCE_DERIVATIVE] = avgDistDerivative;
+		features[offset + NINETIETH_PERCENTILE_DERIVATIVE] = ninetiethPercentileDerivative;
+	}
+
+	private double getHighrollProbability(double x, double z, int distanceThreshold) {
+		PriorIndex priorIndex = PriorIndex.get(divineContext != null ? divineContext.getFossil() : null, approximated);
+		if (priorIndex != null)
+			return getHighrollProbability(priorIndex, x, z, distanceThreshold);
+		// No index for the exact prior with fossil, calculate the prior around the
+		// player
+		double probability = 0;
+		Prior prior;
+		if (!approximated) {
+			prior = new Prior((int) x * 8 / 16, (int) z * 8 / 16, distanceThreshold / 16 + 1, divineContext);
+		} else {
+			prior = new ApproximatedPrior((int) x * 8 / 16, (int) z * 8 / 16, distanceThreshold / 16 + 1, divineContext);
+		}
+		for (Chunk c : prior.getChunks()) {
+			double dx = x * 8 - c.x * 16 + 8;
+			double dz = z * 8 - c.z * 16 + 8;
+			if (dx * dx + dz * dz < distanceThreshold * distanceThreshold)
+				probability += c.weight;
+		}
+		return probability;
+	}
+
+	/**
+	 * Returns the probability that there is a stronghold within distanceThreshold
+	 * overworld blocks of the given nether coords.
+	 */
+	static double getHighrollProbability(PriorIndex priorIndex, double x, double z, int distanceThreshold) {
+		return priorIndex.probabilityWithin((x * 8 + 8) / 16.0, (z * 8 + 8) / 16.0, distanceThreshold / 16.0);
+	}
+
+}
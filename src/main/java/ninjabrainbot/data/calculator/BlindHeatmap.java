@@ -0,0 +1,206 @@
+package ninjabrainbot.data.calculator;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import ninjabrainbot.data.datalock.AlwaysUnlocked;
+import ninjabrainbot.data.divine.DivineContext;
+import ninjabrainbot.data.divine.Fossil;
+import ninjabrainbot.io.preferences.MultipleChoicePreferenceDataTypes.McVersion;
+import ninjabrainbot.util.Logger;
+
+/**
+ * Blind features (see BlindEvaluator) evaluated on a grid of nether coords,
+ * with a spacing of SPACING blocks. The grid is divided into square tiles of
+ * TILE_SIZE x TILE_SIZE cells, which are calculated in the background around
+ * the coords that are looked up, and kept in an LRU cache. Features between
+ * grid points are interpolated bilinearly. Thread safe.
+ */
+class BlindHeatmap {
+
+	static final double SPACING = 4;
+	static final int TILE_SIZE = 32;
+	private static final int POINTS_PER_TILE_SIDE = TILE_SIZE + 1; // Tiles share their border points
+	private static final int PREFETCH_RADIUS = 1;
+	private static final int MAX_CACHED_TILES = 64;
+
+	private static BlindHeatmap instance;
+
+	private final ExecutorService executor;
+	private final Map<TileKey, double[]> tiles = new LinkedHashMap<TileKey, double[]>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<TileKey, double[]> eldest) {
+			return size() > MAX_CACHED_TILES;
+		}
+	};
+	private final Set<TileKey> pendingTiles = new HashSet<TileKey>();
+	private volatile TileKey latestLookup;
+
+	BlindHeatmap(int numThreads) {
+		executor = Executors.newFixedThreadPool(numThreads, runnable -> {
+			Thread thread = new Thread(runnable, "Blind heatmap");
+			thread.setDaemon(true);
+			thread.setPriority(Thread.MIN_PRIORITY);
+			return thread;
+		});
+	}
+
+	/**
+	 * Returns the heatmap that is shared by all calculators.
+	 */
+	static synchronized BlindHeatmap get() {
+		if (instance == null)
+			instance = new BlindHeatmap(Math.max(1, Runtime.getRuntime().availableProcessors() / 2));
+		return instance;
+	}
+
+	/**
+	 * Writes the interpolated features of the given nether coords to features, and
+	 * starts calculating the surrounding tiles in the background if they are not
+	 * cached. Returns false, without modifying features, if the tile containing the
+	 * coords is not cached yet, or if a feature is undefined close to the coords.
+	 */
+	boolean interpolate(Fossil fossil, McVersion version, boolean approximated, double x, double z, double[] features) {
+		double u = x / SPACING;
+		double v = z / SPACING;
+		int gx = (int) Math.floor(u);
+		int gz = (int) Math.floor(v);
+		TileKey key = new TileKey(fossil, version, approximated, Math.floorDiv(gx, TILE_SIZE), Math.floorDiv(gz, TILE_SIZE));
+		latestLookup = key;
+		double[] tile;
+		synchronized (this) {
+			tile = tiles.get(key);
+		}
+		prefetch(key);
+		if (tile == null)
+			return false;
+		int a = gx - key.tx * TILE_SIZE;
+		int b = gz - key.tz * TILE_SIZE;
+		double s = u - gx;
+		double t = v - gz;
+		int i00 = (a * POINTS_PER_TILE_SIDE + b) * BlindEvaluator.NUM_FEATURES;
+		int i01 = i00 + BlindEvaluator.NUM_FEATURES;
+		int i10 = i00 + POINTS_PER_TILE_SIDE * BlindEvaluator.NUM_FEATURES;
+		int i11 = i10 + BlindEvaluator.NUM_FEATURES;
+		double[] interpolated = new double[BlindEvaluator.NUM_FEATURES];
+		for (int f = 0; f < BlindEvaluator.NUM_FEATURES; f++) {
+			interpolated[f] = (1 - s) * ((1 - t) * tile[i00 + f] + t * tile[i01 + f]) + s * ((1 - t) * tile[i10 + f] + t * tile[i11 + f]);
+			// Some features are undefined where the highroll probability is 0
+			if (!Double.isFinite(interpolated[f]))
+				return false;
+		}
+		System.arraycopy(interpolated, 0, features, 0, BlindEvaluator.NUM_FEATURES);
+		return true;
+	}
+
+	/**
+	 * Starts calculating all tiles within PREFETCH_RADIUS of the given tile that
+	 * are neither cached nor pending, closest first.
+	 */
+	private void prefetch(TileKey center) {
+		for (int r = 0; r <= PREFETCH_RADIUS; r++) {
+			for (int dx = -r; dx <= r; dx++) {
+				for (int dz = -r; dz <= r; dz++) {
+					if (Math.max(Math.abs(dx), Math.abs(dz)) != r)
+						continue;
+					TileKey key = center.offset(dx, dz);
+					synchronized (this) {
+						if (tiles.containsKey(key) || !pendingTiles.add(key))
+							continue;
+					}
+					executor.execute(() -> calculateTile(key));
+				}
+			}
+		}
+	}
+
+	private void calculateTile(TileKey key) {
+		try {
+			// Skip tiles that are no longer close to the player
+			TileKey latest = latestLookup;
+			if (latest != null && !key.isNear(latest, PREFETCH_RADIUS + 1))
+				return;
+			long t0 = System.currentTimeMillis();
+			double[] tile = calculateTileValues(key);
+			synchronized (this) {
+				tiles.put(key, tile);
+			}
+			Logger.log("Time to calculate blind heatmap tile: " + (System.currentTimeMillis() - t0) / 1000f + " seconds.");
+		} finally {
+			synchronized (this) {
+				pendingTiles.remove(key);
+			}
+		}
+	}
+
+	static double[] calculateTileValues(TileKey key) {
+		// The divine context of the evaluator must not change, so it gets its own
+		DivineContext divineContext = new DivineContext(new AlwaysUnlocked());
+		if (key.fossil != -1)
+			divineContext.setFossil(new Fossil(key.fossil));
+		BlindEvaluator evaluator = new BlindEvaluator(divineContext, key.approximated);
+		double[] tile = new double[POINTS_PER_TILE_SIDE * POINTS_PER_TILE_SIDE * BlindEvaluator.NUM_FEATURES];
+		for (int a = 0; a < POINTS_PER_TILE_SIDE; a++) {
+			double x = (key.tx * TILE_SIZE + a) * SPACING;
+			for (int b = 0; b < POINTS_PER_TILE_SIDE; b++) {
+				double z = (key.tz * TILE_SIZE + b) * SPACING;
+				evaluator.evaluate(x, z, tile, (a * POINTS_PER_TILE_SIDE + b) * BlindEvaluator.NUM_FEATURES);
+			}
+		}
+		return tile;
+	}
+
+	void dispose() {
+		executor.shutdownNow();
+	}
+
+	static class TileKey {
+
+		final int fossil; // -1 if there is no fossil
+		final McVersion version;
+		final boolean approximated;
+		final int tx, tz;
+
+		TileKey(Fossil fossil, McVersion version, boolean approximated, int tx, int tz) {
+			this(fossil == null ? -1 : fossil.x, version, approximated, tx, tz);
+		}
+
+		private TileKey(int fossil, McVersion version, boolean approximated, int tx, int tz) {
+			this.fossil = fossil;
+			this.version = version;
+			this.approximated = approximated;
+			this.tx = tx;
+			this.tz = tz;
+		}
+
+		TileKey offset(int dx, int dz) {
+			return new TileKey(fossil, version, approximated, tx + dx, tz + dz);
+		}
+
+		boolean isNear(TileKey other, int radius) {
+			return fossil == other.fossil && version == other.version && approximated == other.approximated && Math.abs(tx - other.tx) <= radius && Math.abs(tz - other.tz) <= radius;
+		}
+
+		@Override
+		public boolean equals(Object obj) {
+			if (!(obj instanceof TileKey))
+				return false;
+			TileKey other = (TileKey) obj;
+			return fossil == other.fossil && version == other.version && approximated == other.approximated && tx == other.tx && tz == other.tz;
+		}
+
+		@Override
+		public int hashCode() {
+			return Objects.hash(fossil, version, approximated, tx, tz);
+		}
+
+	}
+
+}
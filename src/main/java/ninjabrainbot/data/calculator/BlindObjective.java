@@ -0,0 +1,19 @@
+package ninjabrainbot.data.calculator;
+
+/**
+ * What the suggested blind coords are optimized for.
+ */
+public enum BlindObjective {
+
+	/**
+	 * Maximizes the probability that there is a stronghold within the highroll
+	 * threshold, with a small penalty for the travel distance.
+	 */
+	HIGHROLL_PROBABILITY,
+	/**
+	 * Minimizes the expected total distance, i.e. the distance travelled in the
+	 * nether plus the average distance to the closest stronghold in the overworld.
+	 */
+	EXPECTED_DISTANCE
+
+}
@@ -4,6 +4,7 @@ import java.util.ArrayList;
 import java.util.List;
 
 import ninjabrainbot.data.endereye.IThrow;
+import ninjabrainbot.data.statistics.ChunkGrid;
 import ninjabrainbot.data.statistics.Posterior;
 import ninjabrainbot.data.stronghold.Chunk;
 import ninjabrainbot.data.stronghold.ChunkPrediction;
@@ -15,10 +16,12 @@ public class CalculatorResult implements ICalculatorResult {
 
 	private final ChunkPrediction bestPrediction;
 	private final List<ChunkPrediction> topPredictions;
+	private final double discardedProbability;
 
 	public CalculatorResult() {
 		bestPrediction = new ChunkPrediction();
 		topPredictions = new ArrayList<ChunkPrediction>();
+		discardedProbability = 0;
 	}
 
 	public CalculatorResult(Posterior posterior, ISet<IThrow> eyeThrows, IObservable<IThrow> playerPos, int numPredictions, McVersion version) {
@@ -26,6 +29,7 @@ public class CalculatorResult implements ICalculatorResult {
 		Chunk predictedChunk = posterior.getMostProbableChunk();
 		bestPrediction = new ChunkPrediction(predictedChunk, playerPos, version);
 		topPredictions = createTopPredictions(posterior, playerPos, numPredictions, version);
+		discardedProbability = posterior.getDiscardedProbability();
 	}
 
 	@Override
@@ -43,14 +47,16 @@ public class CalculatorResult implements ICalculatorResult {
 		return bestPrediction.success;
 	}
 
+	@Override
+	public double getDiscardedProbability() {
+		return discardedProbability;
+	}
+
 	private List<ChunkPrediction> createTopPredictions(Posterior posterior, IObservable<IThrow> playerPos, int amount, McVersion version) {
 		List<ChunkPrediction> topPredictions = new ArrayList<ChunkPrediction>();
-		List<Chunk> topChunks = posterior.getChunks();
-		topChunks.sort((a, b) -> -Double.compare(a.weight, b.weight));
-		for (Chunk c : topChunks) {
-			topPredictions.add(new ChunkPrediction(c, playerPos, version));
-			if (topPredictions.size() >= amount)
-				break;
+		ChunkGrid chunks = posterior.getChunks();
+		for (int i : chunks.indicesOfLargestWeights(amount)) {
+			topPredictions.add(new ChunkPrediction(chunks.getChunk(i), playerPos, version));
 		}
 		return topPredictions;
 	}
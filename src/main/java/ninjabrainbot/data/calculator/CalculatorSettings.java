@@ -4,10 +4,40 @@ import ninjabrainbot.io.preferences.MultipleChoicePreferenceDataTypes.McVersion;
 
 public class CalculatorSettings {
 
+	// maxDiscardedProbability when discarding negligible chunks is enabled
+	public static final double DISCARDED_PROBABILITY_WHEN_ENABLED = 1e-5;
+
 	public boolean approximatedBlindCalculations = true;
+	public boolean useBlindHeatmap = true;
+	public int numberOfBlindCandidates = 3;
+	public double blindTravelBudget = 300; // Nether blocks
+	public BlindObjective blindObjective = BlindObjective.HIGHROLL_PROBABILITY;
 	public int numberOfReturnedPredictions = 5;
 
 	public boolean useAdvStatistics = true;
+	public boolean parallelAdvStatistics = true;
+	// Probability that may be discarded from the posterior after each throw, 0
+	// disables discarding
+	public double maxDiscardedProbability = 0;
 	public McVersion version = McVersion.PRE_119;
 
+	/**
+	 * Returns a copy of the settings, that is not affected by later changes to
+	 * these settings.
+	 */
+	public CalculatorSettings copy() {
+		CalculatorSettings copy = new CalculatorSettings();
+		copy.approximatedBlindCalculations = approximatedBlindCalculations;
+		copy.useBlindHeatmap = useBlindHeatmap;
+		copy.numberOfBlindCandidates = numberOfBlindCandidates;
+		copy.blindTravelBudget = blindTravelBudget;
+		copy.blindObjective = blindObjective;
+		copy.numberOfReturnedPredictions = numberOfReturnedPredictions;
+		copy.useAdvStatistics = useAdvStatistics;
+		copy.parallelAdvStatistics = parallelAdvStatistics;
+		copy.maxDiscardedProbability = maxDiscardedProbability;
+		copy.version = version;
+		return copy;
+	}
+
 }
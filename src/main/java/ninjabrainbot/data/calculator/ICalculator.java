@@ -1,10 +1,13 @@
 package ninjabrainbot.data.calculator;
 
+import java.util.function.Supplier;
+
 import ninjabrainbot.data.blind.BlindPosition;
 import ninjabrainbot.data.blind.BlindResult;
 import ninjabrainbot.data.divine.DivineResult;
 import ninjabrainbot.data.divine.IDivineContext;
 import ninjabrainbot.data.endereye.IThrow;
+import ninjabrainbot.data.statistics.Posterior;
 import ninjabrainbot.event.IObservable;
 import ninjabrainbot.util.ISet;
 
@@ -12,8 +15,43 @@ public interface ICalculator {
 
 	public ICalculatorResult triangulate(ISet<IThrow> eyeThrows, IObservable<IThrow> playerPos);
 
+	/**
+	 * Calculates the posterior for the given throws, the expensive part of
+	 * triangulate(). Can be called from any thread, as long as the throws are not
+	 * modified during the calculation.
+	 */
+	public Posterior getPosterior(ISet<IThrow> eyeThrows);
+
+	/**
+	 * Returns a task that calculates getPosterior() for the given throws. The
+	 * divine context and the settings are copied when this method is called, so
+	 * the task can be run on any thread while they are modified, as long as the
+	 * throws are not modified.
+	 */
+	public Supplier<Posterior> getPosteriorTask(ISet<IThrow> eyeThrows);
+
+	/**
+	 * Creates the result of triangulate() from a posterior returned by
+	 * getPosterior().
+	 */
+	public ICalculatorResult createResult(Posterior posterior, ISet<IThrow> eyeThrows, IObservable<IThrow> playerPos);
+
 	public BlindResult blind(BlindPosition b);
 
+	/**
+	 * Same as blind(), but if searchCandidates is false the blind coords are not
+	 * searched for, which is much faster. The direction to better coords is then
+	 * only estimated.
+	 */
+	public BlindResult blind(BlindPosition b, boolean searchCandidates);
+
+	/**
+	 * Returns a task that calculates blind() for the given position. The divine
+	 * context and the settings are copied when this method is called, see
+	 * getPosteriorTask().
+	 */
+	public Supplier<BlindResult> getBlindTask(BlindPosition b);
+
 	public DivineResult divine();
 
 	public void setDivineContext(IDivineContext divineContext);
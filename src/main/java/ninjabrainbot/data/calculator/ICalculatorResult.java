@@ -13,4 +13,11 @@ public interface ICalculatorResult extends IDisposable {
 
 	public boolean success();
 
+	/**
+	 * Returns an upper bound of the probability that was discarded from the
+	 * posterior to save time, i.e. how much the certainty of the predictions may
+	 * be overestimated.
+	 */
+	public double getDiscardedProbability();
+
 }
@@ -0,0 +1,91 @@
+package ninjabrainbot.data.calculator;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+import ninjabrainbot.event.IDisposable;
+import ninjabrainbot.util.Logger;
+
+/**
+ * Calculates posteriors, or other results such as blind coords, on a dedicated
+ * thread, so that the threads that read input never have to wait for a
+ * calculation to finish. Only the latest submitted calculation is published,
+ * calculations that have been superseded by newer input are skipped or
+ * discarded.
+ */
+public class TriangulationExecutor implements IDisposable {
+
+	private final Consumer<Runnable> publisher;
+	private final ExecutorService executor;
+	private final AtomicLong latestJob = new AtomicLong();
+
+	/**
+	 * @param publisher runs the given action on the calculation thread, with
+	 *                  whatever locks are needed to modify the data state.
+	 */
+	public TriangulationExecutor(Consumer<Runnable> publisher) {
+		this("Triangulation", publisher);
+	}
+
+	public TriangulationExecutor(String threadName, Consumer<Runnable> publisher) {
+		this.publisher = publisher;
+		executor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, threadName);
+			thread.setDaemon(true);
+			return thread;
+		});
+	}
+
+	/**
+	 * Calculates the result in the background, and passes it to whenFinished
+	 * through the publisher, unless another calculation has been submitted or the
+	 * calculation has been cancelled in the meantime. The task must only read data
+	 * that is not modified after it has been submitted, see
+	 * ICalculator.getPosteriorTask() and ThrowSnapshot. If the task throws an
+	 * exception, whenFailed is run through the publisher instead, so that the
+	 * result of the previous calculation is not left next to the new throws.
+	 */
+	public <T> void submit(Supplier<T> task, Consumer<T> whenFinished, Runnable whenFailed) {
+		long job = latestJob.incrementAndGet();
+		executor.execute(() -> {
+			if (job != latestJob.get())
+				return;
+			T result;
+			try {
+				result = task.get();
+			} catch (RuntimeException e) {
+				Logger.log("Calculation failed: " + e);
+				e.printStackTrace();
+				publishIfLatest(job, whenFailed);
+				return;
+			}
+			publishIfLatest(job, () -> whenFinished.accept(result));
+		});
+	}
+
+	private void publishIfLatest(long job, Runnable action) {
+		publisher.accept(() -> {
+			// The check is done by the publisher, so that the result cannot be
+			// superseded between the check and the publication.
+			if (job == latestJob.get())
+				action.run();
+		});
+	}
+
+	/**
+	 * Discards the result of all calculations that have been submitted so far.
+	 */
+	public void cancel() {
+		latestJob.incrementAndGet();
+	}
+
+	@Override
+	public void dispose() {
+		cancel();
+		executor.shutdownNow();
+	}
+
+}
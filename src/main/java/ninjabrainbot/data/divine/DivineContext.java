@@ -1,6 +1,7 @@
 package ninjabrainbot.data.divine;
 
 import ninjabrainbot.data.blind.BlindPosition;
+import ninjabrainbot.data.datalock.AlwaysUnlocked;
 import ninjabrainbot.data.datalock.IModificationLock;
 import ninjabrainbot.data.datalock.LockableField;
 import ninjabrainbot.data.statistics.DiscretizedDensity;
@@ -12,6 +13,7 @@ import ninjabrainbot.util.Coords;
 public class DivineContext implements IDivineContext {
 
 	private DiscretizedDensity discretizedAngularDensity;
+	private SnappedAngularDensity snappedAngularDensity;
 
 	private ObservableField<Fossil> fossil;
 
@@ -20,6 +22,20 @@ public class DivineContext implements IDivineContext {
 		discretizedAngularDensity = new DiscretizedDensity(0, 2.0 * Math.PI);
 	}
 
+	/**
+	 * Returns a new divine context with the same fossil as the given one, that
+	 * can be read from other threads while the given context is modified, or null
+	 * if the given context is null.
+	 */
+	public static DivineContext snapshotOf(IDivineContext divineContext) {
+		if (divineContext == null)
+			return null;
+		DivineContext snapshot = new DivineContext(new AlwaysUnlocked());
+		if (divineContext.getFossil() != null)
+			snapshot.setFossil(divineContext.getFossil());
+		return snapshot;
+	}
+
 	@Override
 	public Fossil getFossil() {
 		return fossil.get();
@@ -60,6 +76,19 @@ public class DivineContext implements IDivineContext {
 		return discretizedAngularDensity.getDensity(phi);
 	}
 
+	@Override
+	public double getDensityAtChunkAfterSnapping(double cx, double cz) {
+		SnappedAngularDensity snappedAngularDensity = this.snappedAngularDensity;
+		if (snappedAngularDensity == null) {
+			Fossil f = fossil.get();
+			if (f == null)
+				return 1.0 / (2.0 * Math.PI);
+			snappedAngularDensity = SnappedAngularDensity.get(f);
+			this.snappedAngularDensity = snappedAngularDensity;
+		}
+		return snappedAngularDensity.getDensity(cx, cz);
+	}
+
 	/**
 	 * Returns the closest of the three divine coords that are a distance r from
 	 * (0,0)
@@ -93,36 +122,12 @@ public class DivineContext implements IDivineContext {
 	}
 
 	private void onFossilChanged(Fossil fossil) {
+		snappedAngularDensity = null;
 		if (fossil == null) {
 			discretizedAngularDensity.reset(1);
 			return;
 		}
-		discretizedAngularDensity.reset(16 * 3);
-		int angleIndex = -4 + fossil.x;
-		if (angleIndex < 0) {
-			angleIndex += 16;
-		}
-		double sectorPhiMin = 2.0 * Math.PI * ((angleIndex) / 16.0);
-		double sectorPhiMax = 2.0 * Math.PI * ((angleIndex + 1) / 16.0);
-		addDensityThreeStrongholds(sectorPhiMin, sectorPhiMax, 1.0);
-		discretizedAngularDensity.normalize();
-	}
-
-	private void addDensityThreeStrongholds(double minPhi, double maxPhi, double density) {
-		for (int i = 0; i < 3; i++) {
-			if (minPhi > 2 * Math.PI)
-				minPhi -= 2 * Math.PI;
-			if (maxPhi > 2 * Math.PI)
-				maxPhi -= 2 * Math.PI;
-			if (maxPhi >= minPhi) {
-				discretizedAngularDensity.addDensity(minPhi, maxPhi, 1.0);
-			} else {
-				discretizedAngularDensity.addDensity(minPhi, 2 * Math.PI, 1.0);
-				discretizedAngularDensity.addDensity(0, maxPhi, 1.0);
-			}
-			minPhi += 2.0 / 3.0 * Math.PI;
-			maxPhi += 2.0 / 3.0 * Math.PI;
-		}
+		discretizedAngularDensity = SnappedAngularDensity.createAngularDensity(fossil);
 	}
 
 }
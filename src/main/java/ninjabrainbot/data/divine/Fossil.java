@@ -1,5 +1,7 @@
 package ninjabrainbot.data.divine;
 
+import ninjabrainbot.io.InputParser;
+
 public class Fossil {
 
 	public final int x;
@@ -13,21 +15,10 @@ public class Fossil {
 	 * in the 0,0 chunk, null otherwise.
 	 */
 	public static Fossil parseF3I(String string) {
-		if (!string.startsWith("/setblock "))
-			return null;
-		String[] substrings = string.split(" ");
-		if (substrings.length != 5)
-			return null;
-		try {
-			int x = Integer.parseInt(substrings[1]);
-			int z = Integer.parseInt(substrings[3]);
-			if (0 <= x && x < 16 && 0 <= z && z < 16) {
-				return new Fossil(x);
-			}
-			return null;
-		} catch (NullPointerException | NumberFormatException e) {
+		InputParser parser = new InputParser();
+		if (parser.parse(string) != InputParser.Result.FOSSIL)
 			return null;
-		}
+		return parser.createFossil();
 	}
 
 	@Override
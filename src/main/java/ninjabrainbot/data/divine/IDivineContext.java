@@ -20,6 +20,13 @@ public interface IDivineContext {
 
 	public double getDensityAtAngleBeforeSnapping(double phi);
 
+	/**
+	 * Returns the angular density before snapping, averaged over the snapping
+	 * neighbourhood of chunk coords (cx, cz). Only defined if there is a divine
+	 * fossil.
+	 */
+	public double getDensityAtChunkAfterSnapping(double cx, double cz);
+
 	/**
 	 * Returns the closest of the three divine coords that are a distance r from
 	 * (0,0)
@@ -0,0 +1,154 @@
+package ninjabrainbot.data.divine;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import ninjabrainbot.data.statistics.DiscretizedDensity;
+import ninjabrainbot.data.stronghold.Ring;
+import ninjabrainbot.data.stronghold.StrongholdConstants;
+import ninjabrainbot.util.Coords;
+import ninjabrainbot.util.Logger;
+
+/**
+ * The angular stronghold density of a divine fossil in the first ring, averaged
+ * over the biome snapping neighbourhood of every chunk sample, so that it can be
+ * looked up with a single table read instead of (2 * snappingRadius + 1)^2
+ * angle evaluations.
+ *
+ * The priors sample chunks at their corners, so the table only contains points
+ * with half-integer chunk coords. Other points are evaluated directly. Tables
+ * only depend on the x coordinate of the fossil and are cached in a bounded
+ * cache shared by all divine contexts.
+ */
+public class SnappedAngularDensity {
+
+	private static final int MAX_CACHED_TABLES = 4;
+	private static final Map<Integer, SnappedAngularDensity> cache = new LinkedHashMap<Integer, SnappedAngularDensity>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, SnappedAngularDensity> eldest) {
+			return size() > MAX_CACHED_TABLES;
+		}
+	};
+
+	private final DiscretizedDensity angularDensity;
+	private final int radius;
+	private final int size1d;
+	private final double[] table;
+
+	private SnappedAngularDensity(Fossil fossil) {
+		angularDensity = createAngularDensity(fossil);
+		radius = (int) Math.ceil(Ring.get(0).outerRadiusPostSnapping) + StrongholdConstants.snappingRadius + 1;
+		size1d = 2 * radius;
+		table = new double[size1d * size1d];
+		final int m = StrongholdConstants.snappingRadius;
+		final int paddedSize1d = size1d + 2 * m;
+		// Density at every half-integer point, padded by the snapping radius
+		final double[] density = new double[paddedSize1d * paddedSize1d];
+		for (int a = 0; a < paddedSize1d; a++) {
+			double x = a - radius - m + 0.5;
+			for (int b = 0; b < paddedSize1d; b++) {
+				double z = b - radius - m + 0.5;
+				density[a * paddedSize1d + b] = densityAtAngle(Coords.getPhi(x, z));
+			}
+		}
+		// Average over the snapping neighbourhood, first in the z direction and then
+		// in the x direction
+		final double[] zSummed = new double[paddedSize1d * size1d];
+		for (int a = 0; a < paddedSize1d; a++) {
+			for (int b = 0; b < size1d; b++) {
+				double w = 0;
+				for (int j = 0; j <= 2 * m; j++) {
+					w += density[a * paddedSize1d + b + j];
+				}
+				zSummed[a * size1d + b] = w;
+			}
+		}
+		final double numPoints = (2 * m + 1) * (2 * m + 1);
+		for (int a = 0; a < size1d; a++) {
+			for (int b = 0; b < size1d; b++) {
+				double w = 0;
+				for (int i = 0; i <= 2 * m; i++) {
+					w += zSummed[(a + i) * size1d + b];
+				}
+				table[a * size1d + b] = w / numPoints;
+			}
+		}
+	}
+
+	/**
+	 * Returns the table for the given fossil, computing it if it is not cached.
+	 */
+	public static SnappedAngularDensity get(Fossil fossil) {
+		synchronized (cache) {
+			SnappedAngularDensity snappedAngularDensity = cache.get(fossil.x);
+			if (snappedAngularDensity == null) {
+				long t0 = System.currentTimeMillis();
+				snappedAngularDensity = new SnappedAngularDensity(fossil);
+				cache.put(fossil.x, snappedAngularDensity);
+				Logger.log("Time to compute snapped angular density: " + (System.currentTimeMillis() - t0) / 1000f + " seconds.");
+			}
+			return snappedAngularDensity;
+		}
+	}
+
+	/**
+	 * Returns the average angular density (before snapping) over the snapping
+	 * neighbourhood of chunk coords (cx, cz).
+	 */
+	public double getDensity(double cx, double cz) {
+		double u = cx + radius - 0.5;
+		double v = cz + radius - 0.5;
+		int a = (int) u;
+		int b = (int) v;
+		if (a == u && b == v && a >= 0 && a < size1d && b >= 0 && b < size1d)
+			return table[a * size1d + b];
+		int m = StrongholdConstants.snappingRadius;
+		double w = 0;
+		for (int i = -m; i <= m; i++) {
+			for (int j = -m; j <= m; j++) {
+				w += densityAtAngle(Coords.getPhi(cx + i, cz + j));
+			}
+		}
+		return w / ((2 * m + 1) * (2 * m + 1));
+	}
+
+	private double densityAtAngle(double phi) {
+		while (phi < 0)
+			phi += 2.0 * Math.PI;
+		return angularDensity.getDensity(phi);
+	}
+
+	/**
+	 * Returns the angular density (before snapping) of strongholds in the first
+	 * ring, given the fossil.
+	 */
+	static DiscretizedDensity createAngularDensity(Fossil fossil) {
+		DiscretizedDensity density = new DiscretizedDensity(0, 2.0 * Math.PI);
+		density.reset(16 * 3);
+		int angleIndex = -4 + fossil.x;
+		if (angleIndex < 0) {
+			angleIndex += 16;
+		}
+		double minPhi = 2.0 * Math.PI * ((angleIndex) / 16.0);
+		double maxPhi = 2.0 * Math.PI * ((angleIndex + 1) / 16.0);
+		for (int i = 0; i < 3; i++) {
+			if (minPhi > 2 * Math.PI)
+				minPhi -= 2 * Math.PI;
+			if (maxPhi > 2 * Math.PI)
+				maxPhi -= 2 * Math.PI;
+			if (maxPhi >= minPhi) {
+				density.addDensity(minPhi, maxPhi, 1.0);
+			} else {
+				density.addDensity(minPhi, 2 * Math.PI, 1.0);
+				density.addDensity(0, maxPhi, 1.0);
+			}
+			minPhi += 2.0 / 3.0 * Math.PI;
+			maxPhi += 2.0 / 3.0 * Math.PI;
+		}
+		density.normalize();
+		return density;
+	}
+
+}
@@ -4,6 +4,7 @@ import ninjabrainbot.data.datalock.DataComponent;
 import ninjabrainbot.data.datalock.IModificationLock;
 import ninjabrainbot.event.IDisposable;
 import ninjabrainbot.event.Subscription;
+import ninjabrainbot.io.InputParser;
 
 /**
  * Represents an eye of ender throw.
@@ -46,23 +47,10 @@ public class Throw extends DataComponent<IThrow> implements IThrow, IDisposable
 	 * null otherwise.
 	 */
 	public static IThrow parseF3C(String string, double crosshairCorrection, IModificationLock modificationLock) {
-		if (!(string.startsWith("/execute in minecraft:overworld run tp @s") || string.startsWith("/execute in minecraft:the_nether run tp @s"))) {
+		InputParser parser = new InputParser();
+		if (parser.parse(string) != InputParser.Result.THROW)
 			return null;
-		}
-		String[] substrings = string.split(" ");
-		if (substrings.length != 11)
-			return null;
-		try {
-			boolean nether = substrings[2].equals("minecraft:the_nether");
-			double x = Double.parseDouble(substrings[6]);
-			double z = Double.parseDouble(substrings[8]);
-			double alpha = Double.parseDouble(substrings[9]);
-			double beta = Double.parseDouble(substrings[10]);
-			alpha += crosshairCorrection;
-			return new Throw(x, z, alpha, beta, nether, modificationLock);
-		} catch (NullPointerException | NumberFormatException e) {
-			return null;
-		}
+		return parser.createThrow(crosshairCorrection, modificationLock);
 	}
 
 	@Override
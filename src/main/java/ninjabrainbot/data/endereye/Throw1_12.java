@@ -1,6 +1,7 @@
 package ninjabrainbot.data.endereye;
 
 import ninjabrainbot.data.datalock.IModificationLock;
+import ninjabrainbot.io.InputParser;
 
 public class Throw1_12 extends Throw {
 
@@ -18,18 +19,10 @@ public class Throw1_12 extends Throw {
 	 * written x/z/angle string, null otherwise.
 	 */
 	public static IThrow parseF3C(String string, double crosshairCorrection, IModificationLock modificationLock) {
-		String[] substrings = string.split(" ");
-		if (substrings.length != 3)
+		InputParser parser = new InputParser();
+		if (parser.parse(string) != InputParser.Result.THROW_1_12)
 			return null;
-		try {
-			double x = Double.parseDouble(substrings[0]) + 0.5; // Add 0.5 because block coords should be used
-			double z = Double.parseDouble(substrings[1]) + 0.5; // Add 0.5 because block coords should be used
-			double alpha = Double.parseDouble(substrings[2]);
-			alpha += crosshairCorrection;
-			return new Throw(x, z, alpha, -31, false, modificationLock);
-		} catch (NullPointerException | NumberFormatException e) {
-			return null;
-		}
+		return parser.createThrow(crosshairCorrection, modificationLock);
 	}
 
 }
@@ -0,0 +1,113 @@
+package ninjabrainbot.data.endereye;
+
+import ninjabrainbot.data.datalock.AlwaysUnlocked;
+import ninjabrainbot.event.ISubscribable;
+import ninjabrainbot.event.ObservableProperty;
+import ninjabrainbot.util.ISet;
+
+/**
+ * An immutable copy of the values of a throw at a given point in time. Can be
+ * safely read from other threads while the original throw is being modified.
+ */
+public class ThrowSnapshot implements IThrow {
+
+	private final ISubscribable<IThrow> whenModified = new ObservableProperty<IThrow>();
+
+	private final double x, z, alpha_0, correction, std;
+	private final boolean lookingBelowHorizon, nether, mcVersion1_12;
+	private final int stdProfileNumber;
+
+	public ThrowSnapshot(IThrow t) {
+		x = t.x();
+		z = t.z();
+		alpha_0 = t.alpha_0();
+		correction = t.correction();
+		std = t.getStd();
+		lookingBelowHorizon = t.lookingBelowHorizon();
+		nether = t.isNether();
+		mcVersion1_12 = t.isMcVersion1_12();
+		stdProfileNumber = t.getStdProfileNumber();
+	}
+
+	/**
+	 * Returns a new set containing snapshots of all throws in the given set.
+	 */
+	public static ISet<IThrow> snapshotOf(ISet<IThrow> eyeThrows) {
+		ThrowSet snapshot = new ThrowSet(new AlwaysUnlocked());
+		for (IThrow t : eyeThrows) {
+			snapshot.add(new ThrowSnapshot(t));
+		}
+		return snapshot;
+	}
+
+	@Override
+	public double x() {
+		return x;
+	}
+
+	@Override
+	public double z() {
+		return z;
+	}
+
+	@Override
+	public double alpha() {
+		return alpha_0 + correction;
+	}
+
+	@Override
+	public double getStd() {
+		return std;
+	}
+
+	@Override
+	public double alpha_0() {
+		return alpha_0;
+	}
+
+	@Override
+	public double correction() {
+		return correction;
+	}
+
+	@Override
+	public boolean lookingBelowHorizon() {
+		return lookingBelowHorizon;
+	}
+
+	@Override
+	public boolean isNether() {
+		return nether;
+	}
+
+	@Override
+	public boolean isMcVersion1_12() {
+		return mcVersion1_12;
+	}
+
+	@Override
+	public int getStdProfileNumber() {
+		return stdProfileNumber;
+	}
+
+	@Override
+	public void addCorrection(double angle) {
+		throw new UnsupportedOperationException("Throw snapshots cannot be modified.");
+	}
+
+	@Override
+	public void setStdProfileNumber(int profileNumber) {
+		throw new UnsupportedOperationException("Throw snapshots cannot be modified.");
+	}
+
+	@Override
+	public void setStdProfile(IStdProfile stdProfile) {
+		throw new UnsupportedOperationException("Throw snapshots cannot be modified.");
+	}
+
+	@Override
+	public ISubscribable<IThrow> whenModified() {
+		return whenModified;
+	}
+
+}
@@ -0,0 +1,25 @@
+package ninjabrainbot.data.statistics;
+
+/**
+ * The per-chunk work of conditioning on a throw: the angle from the throw to
+ * each chunk, and the log likelihood of the throw given those angles. Works on
+ * batches of chunks, so that implementations can use SIMD instructions. The
+ * result for a chunk may not depend on the other chunks in the batch.
+ */
+abstract class AngleKernel {
+
+	/**
+	 * Writes the angle in degrees from the throw to each chunk, -atan2(dx, dz), to
+	 * gammas[k] for k < n, where (dx, dz) is the offset from the throw to the
+	 * chunk.
+	 */
+	abstract void angles(double[] dx, double[] dz, double[] gammas, int n);
+
+	/**
+	 * Writes the log likelihood -delta^2 / (2 std^2) of a throw with the given
+	 * angle and standard deviation to logLikelihoods[k] for k < n, where delta is
+	 * the difference between gammas[k] and alpha, wrapped to [0, 180].
+	 */
+	abstract void logLikelihoods(double[] gammas, double alpha, double std, double[] logLikelihoods, int n);
+
+}
@@ -0,0 +1,19 @@
+package ninjabrainbot.data.statistics;
+
+/**
+ * Selects the AngleKernel to use. This is the Java 8 version, which always uses
+ * the scalar kernel. On Java 17 and later, the multi-release jar replaces this
+ * class with a version that uses the Vector API if it is available.
+ */
+final class AngleKernels {
+
+	static final AngleKernel INSTANCE = create();
+
+	private AngleKernels() {
+	}
+
+	private static AngleKernel create() {
+		return new ScalarAngleKernel();
+	}
+
+}
@@ -3,28 +3,37 @@ package ninjabrainbot.data.statistics;
 import java.util.HashMap;
 
 import ninjabrainbot.data.stronghold.Ring;
-import ninjabrainbot.data.stronghold.RingIterator;
 import ninjabrainbot.data.stronghold.StrongholdConstants;
 
 public class ApproximatedDensity {
 
 	private static final int deltaR = 1; // discretisation step size (in chunks)
 	private static double[] density; // approximated density
-	private static double[] cumulative_r_space; // approximated density
+	// Assigned after density, so that density is complete if this is not null
+	private static volatile double[] cumulative_r_space; // approximated density
 
 	public static void init() {
-		if (density != null)
+		if (cumulative_r_space == null)
+			calculate();
+	}
+
+	/**
+	 * Calculates the density, unless another thread has already done it. The
+	 * fields are only assigned when they are complete, so that a thread that
+	 * calls init() while they are being calculated waits for them.
+	 */
+	private static synchronized void calculate() {
+		if (cumulative_r_space != null)
 			return;
-		density = new double[StrongholdConstants.maxChunk / deltaR + 5];
-		RingIterator ringIterator = new RingIterator();
-		for (Ring ring : ringIterator) {
+		double[] densityPreSnapping = new double[StrongholdConstants.maxChunk / deltaR + 5];
+		for (Ring ring : Ring.rings) {
 			int c0 = (int) ring.innerRadius;
 			int c1 = (int) ring.outerRadius;
 			for (int i = c0; i <= c1; i += deltaR) {
 				double rho = ring.numStrongholds / (2.0 * Math.PI * (ring.outerRadius - ring.innerRadius) * i);
 				if (i == c0 || i == c1)
 					rho *= 0.5;
-				density[i / deltaR] = rho;
+				densityPreSnapping[i / deltaR] = rho;
 			}
 		}
 		double[] filter = new double[(int) (Math.ceil(StrongholdConstants.snappingRadius / deltaR * Math.sqrt(2))) + 1];
@@ -48,8 +57,7 @@ public class ApproximatedDensity {
 			filter[i] = filter[i] / sum;
 		}
 		// convolve
-		double[] densityPreSnapping = density;
-		density = new double[StrongholdConstants.maxChunk / deltaR + 5];
+		double[] density = new double[StrongholdConstants.maxChunk / deltaR + 5];
 		for (int i = 0; i < density.length; i++) {
 			for (int j = -filter.length + 1; j < filter.length; j++) {
 				if (i + j >= 0 && i + j < densityPreSnapping.length) {
@@ -58,12 +66,14 @@ public class ApproximatedDensity {
 				}
 			}
 		}
-		cumulative_r_space = new double[StrongholdConstants.maxChunk / deltaR + 5];
+		double[] cumulative_r_space = new double[StrongholdConstants.maxChunk / deltaR + 5];
 		double cumsum = 0;
 		for (int i = 0; i < cumulative_r_space.length; i++) {
 			cumsum += density[i] * i * deltaR * 2.0 * Math.PI;
 			cumulative_r_space[i] = cumsum;
 		}
+		ApproximatedDensity.density = density;
+		ApproximatedDensity.cumulative_r_space = cumulative_r_space;
 	}
 
 	public static double density(double cx, double cz) {
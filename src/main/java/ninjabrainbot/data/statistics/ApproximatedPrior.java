@@ -2,16 +2,14 @@ package ninjabrainbot.data.statistics;
 
 import ninjabrainbot.data.divine.IDivineContext;
 import ninjabrainbot.data.stronghold.Ring;
-import ninjabrainbot.data.stronghold.RingIterator;
 import ninjabrainbot.data.stronghold.StrongholdConstants;
-import ninjabrainbot.util.Coords;
 import ninjabrainbot.util.Logger;
 
 /**
  * A prior that approximates biome snapping as opposed to calculating it
  * exactly, which is costly.
  */
-public class ApproximatedPrior extends Prior {
+public class ApproximatedPrior extends Prior implements IPointwisePrior {
 
 	public ApproximatedPrior() {
 		super();
@@ -73,28 +71,50 @@ public class ApproximatedPrior extends Prior {
 		Logger.log("False negative count: " + falseNegativeCount);
 		Logger.log("Prior sum: " + sump);
 		Logger.log("Approx prior sum: " + sum);
-		RingIterator ringIterator = new RingIterator();
-		Ring ring = ringIterator.next();
+		Ring ring = Ring.get(0);
 		Logger.log("Density at 1600: Approx: " + strongholdDensity(100, 0, ring) + ", True (pre snapping): " + super.strongholdDensity(100, 0, ring));
-		ring = ringIterator.next();
-		ring = ringIterator.next();
+		ring = Ring.get(2);
 		Logger.log("Density at 8000: Approx: " + strongholdDensity(500, 0, ring) + ", True (pre snapping): " + super.strongholdDensity(500, 0, ring));
 	}
 
+	/**
+	 * Returns the weight of the given chunk, which is the same as the weight of the
+	 * chunk in any approximated prior whose domain contains it, since the
+	 * approximation does not smooth the weights.
+	 */
+	@Override
+	public double weight(int cx, int cz) {
+		int n = discretisationPointsPerChunkSide();
+		double r = Math.sqrt(cx * cx + cz * cz);
+		double weight = 0;
+		for (Ring ring : Ring.rings) {
+			int c1 = (int) ring.outerRadius + margin();
+			if (cx < -c1 || cx > c1 || cz < -c1 || cz > c1)
+				continue;
+			// The density is 0 at all sample points (which are within 1 chunk of the
+			// center) if the chunk is far from the ring
+			if (r + 1 < ring.innerRadius - 2 * StrongholdConstants.snappingRadius || r - 1 > ring.outerRadius + 2 * StrongholdConstants.snappingRadius)
+				continue;
+			double ringWeight = 0;
+			for (int k = 0; k < n; k++) {
+				double x = cx - 0.5 + k / (n - 1.0);
+				for (int l = 0; l < n; l++) {
+					double z = cz - 0.5 + l / (n - 1.0);
+					ringWeight += strongholdDensity(x, z, ring);
+				}
+			}
+			ringWeight /= (double) n * n;
+			weight += ringWeight;
+		}
+		return weight;
+	}
+
 	@Override
 	protected double strongholdDensity(double cx, double cz, Ring ring) {
 		double d2 = cx * cx + cz * cz;
 		double relativeWeight = 1.0;
 		if (ring.ring == 0 && divineContext.hasDivine()) {
-			int m = StrongholdConstants.snappingRadius;
-			double w = 0;
-			for (int i = -m; i <= m; i++) {
-				for (int j = -m; j <= m; j++) {
-					w += divineContext.getDensityAtAngleBeforeSnapping(Coords.getPhi(cx + i, cz + j));
-				}
-			}
-			w /= (2 * m + 1) * (2 * m + 1);
-			relativeWeight *= w * 2.0 * Math.PI;
+			relativeWeight *= divineContext.getDensityAtChunkAfterSnapping(cx, cz) * 2.0 * Math.PI;
 		}
 		// Post snapping circle radiuses (dont have to be exact, tighter margins only
 		// affect performance, not the result)
@@ -0,0 +1,67 @@
+package ninjabrainbot.data.statistics;
+
+import java.util.Arrays;
+
+/**
+ * Partition of the chunks of a ChunkGrid into square blocks of BLOCK_SIZE x
+ * BLOCK_SIZE chunks, together with the bounding box of the chunks in each
+ * block, so that a function of the chunk coords can be bounded for a whole
+ * block before it is evaluated for every chunk in it. Only depends on the
+ * coords of the chunks, not on their weights.
+ */
+class ChunkBlocks {
+
+	static final int BLOCK_SIZE = 8;
+
+	private static final int BITS = 21;
+	private static final long MASK = (1L << BITS) - 1;
+	private static final int OFFSET = 1 << (BITS - 1);
+
+	final int numBlocks;
+	// The chunks of block b are chunkIndices[start[b]] to chunkIndices[start[b + 1] - 1]
+	final int[] start;
+	final int[] chunkIndices;
+	final int[] minX, maxX, minZ, maxZ;
+
+	ChunkBlocks(ChunkGrid grid) {
+		int n = grid.size;
+		// Sort the chunks by block, encoded as (block x, block z, chunk index)
+		long[] keys = new long[n];
+		for (int i = 0; i < n; i++) {
+			long bx = Math.floorDiv(grid.x[i], BLOCK_SIZE) + OFFSET;
+			long bz = Math.floorDiv(grid.z[i], BLOCK_SIZE) + OFFSET;
+			keys[i] = (bx << (2 * BITS)) | (bz << BITS) | i;
+		}
+		Arrays.sort(keys);
+		int blocks = 0;
+		for (int k = 0; k < n; k++) {
+			if (k == 0 || (keys[k] >>> BITS) != (keys[k - 1] >>> BITS))
+				blocks++;
+		}
+		numBlocks = blocks;
+		start = new int[numBlocks + 1];
+		chunkIndices = new int[n];
+		minX = new int[numBlocks];
+		maxX = new int[numBlocks];
+		minZ = new int[numBlocks];
+		maxZ = new int[numBlocks];
+		int b = -1;
+		for (int k = 0; k < n; k++) {
+			int i = (int) (keys[k] & MASK);
+			chunkIndices[k] = i;
+			if (k == 0 || (keys[k] >>> BITS) != (keys[k - 1] >>> BITS)) {
+				b++;
+				start[b] = k;
+				minX[b] = maxX[b] = grid.x[i];
+				minZ[b] = maxZ[b] = grid.z[i];
+			} else {
+				minX[b] = Math.min(minX[b], grid.x[i]);
+				maxX[b] = Math.max(maxX[b], grid.x[i]);
+				minZ[b] = Math.min(minZ[b], grid.z[i]);
+				maxZ[b] = Math.max(maxZ[b], grid.z[i]);
+			}
+		}
+		start[numBlocks] = n;
+	}
+
+}
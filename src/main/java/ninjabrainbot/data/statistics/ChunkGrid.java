@@ -0,0 +1,209 @@
+package ninjabrainbot.data.statistics;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import ninjabrainbot.data.stronghold.Chunk;
+import ninjabrainbot.util.TopK;
+
+/**
+ * A set of chunks stored as primitive arrays (structure of arrays), so that
+ * posteriors with tens of thousands of chunks do not need one heap object per
+ * chunk. Chunk objects are only created on demand, through getChunk(int) or
+ * asChunks().
+ */
+public class ChunkGrid {
+
+	int size;
+	int[] x;
+	int[] z;
+	double[] weight;
+
+	public ChunkGrid() {
+		this(16);
+	}
+
+	public ChunkGrid(int initialCapacity) {
+		if (initialCapacity < 1)
+			initialCapacity = 1;
+		x = new int[initialCapacity];
+		z = new int[initialCapacity];
+		weight = new double[initialCapacity];
+		size = 0;
+	}
+
+	/**
+	 * Returns a deep copy of the grid.
+	 */
+	public ChunkGrid copy() {
+		ChunkGrid copy = new ChunkGrid(size);
+		System.arraycopy(x, 0, copy.x, 0, size);
+		System.arraycopy(z, 0, copy.z, 0, size);
+		System.arraycopy(weight, 0, copy.weight, 0, size);
+		copy.size = size;
+		return copy;
+	}
+
+	public void add(int cx, int cz, double w) {
+		if (size == x.length) {
+			int capacity = 2 * x.length;
+			x = Arrays.copyOf(x, capacity);
+			z = Arrays.copyOf(z, capacity);
+			weight = Arrays.copyOf(weight, capacity);
+		}
+		x[size] = cx;
+		z[size] = cz;
+		weight[size] = w;
+		size++;
+	}
+
+	public int size() {
+		return size;
+	}
+
+	public int x(int i) {
+		return x[i];
+	}
+
+	public int z(int i) {
+		return z[i];
+	}
+
+	public double weight(int i) {
+		return weight[i];
+	}
+
+	public void setWeight(int i, double w) {
+		weight[i] = w;
+	}
+
+	/**
+	 * Returns a new Chunk object with the coords and weight of the chunk at the
+	 * given index.
+	 */
+	public Chunk getChunk(int i) {
+		return new Chunk(x[i], z[i], weight[i]);
+	}
+
+	public double totalWeight() {
+		double weightSum = 0.0;
+		for (int i = 0; i < size; i++) {
+			weightSum += weight[i];
+		}
+		return weightSum;
+	}
+
+	/**
+	 * Divides all weights by the total weight.
+	 */
+	public void normalize() {
+		final double totalWeight = totalWeight();
+		for (int i = 0; i < size; i++) {
+			weight[i] /= totalWeight;
+		}
+	}
+
+	/**
+	 * Returns the index of the chunk with the largest weight, or -1 if the grid is
+	 * empty.
+	 */
+	public int indexOfMaxWeight() {
+		int best = -1;
+		double bestWeight = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < size; i++) {
+			if (weight[i] > bestWeight) {
+				bestWeight = weight[i];
+				best = i;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Sorts the chunks in place, in order of decreasing weight.
+	 */
+	public void sortByDescendingWeight() {
+		int[] order = indicesOfLargestWeights(size);
+		int[] sortedX = new int[x.length];
+		int[] sortedZ = new int[z.length];
+		double[] sortedWeight = new double[weight.length];
+		for (int i = 0; i < size; i++) {
+			sortedX[i] = x[order[i]];
+			sortedZ[i] = z[order[i]];
+			sortedWeight[i] = weight[order[i]];
+		}
+		x = sortedX;
+		z = sortedZ;
+		weight = sortedWeight;
+	}
+
+	/**
+	 * Returns the indices of the k chunks with the largest weights, in order of
+	 * decreasing weight, without reordering the grid.
+	 */
+	public int[] indicesOfLargestWeights(int k) {
+		return TopK.largest(weight, size, k);
+	}
+
+	/**
+	 * Returns the indices of the smallest set of chunks whose total weight is at
+	 * least the given probability, in order of decreasing weight.
+	 */
+	public int[] credibleSet(double probability) {
+		return TopK.credibleSet(weight, size, probability);
+	}
+
+	/**
+	 * Returns a new grid with the chunks at the given indices, in the given order.
+	 */
+	public ChunkGrid subset(int[] indices) {
+		ChunkGrid subset = new ChunkGrid(indices.length);
+		for (int i : indices) {
+			subset.add(x[i], z[i], weight[i]);
+		}
+		return subset;
+	}
+
+	/**
+	 * Returns the indices of the chunks whose weight is not 0, in increasing
+	 * order.
+	 */
+	public int[] indicesOfNonZeroWeights() {
+		int n = 0;
+		for (int i = 0; i < size; i++) {
+			if (weight[i] != 0)
+				n++;
+		}
+		int[] indices = new int[n];
+		n = 0;
+		for (int i = 0; i < size; i++) {
+			if (weight[i] != 0)
+				indices[n++] = i;
+		}
+		return indices;
+	}
+
+	/**
+	 * Returns a view of the grid that creates a Chunk object for every element.
+	 * Only intended for code that is not performance critical.
+	 */
+	public Iterable<Chunk> asChunks() {
+		return () -> new Iterator<Chunk>() {
+			int i = 0;
+
+			@Override
+			public boolean hasNext() {
+				return i < size;
+			}
+
+			@Override
+			public Chunk next() {
+				if (i >= size)
+					throw new NoSuchElementException();
+				return getChunk(i++);
+			}
+		};
+	}
+
+}
@@ -0,0 +1,13 @@
+package ninjabrainbot.data.statistics;
+
+/**
+ * A prior that can be evaluated at a single chunk, independently of any domain.
+ */
+public interface IPointwisePrior {
+
+	/**
+	 * Returns the prior probability that the chunk contains a stronghold.
+	 */
+	public double weight(int cx, int cz);
+
+}
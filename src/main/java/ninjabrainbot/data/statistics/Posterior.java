@@ -1,10 +1,12 @@
 package ninjabrainbot.data.statistics;
 
 import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.List;
-import java.util.Optional;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 
+import ninjabrainbot.data.divine.Fossil;
 import ninjabrainbot.data.divine.IDivineContext;
 import ninjabrainbot.data.endereye.IThrow;
 import ninjabrainbot.data.stronghold.Chunk;
@@ -13,49 +15,378 @@ import ninjabrainbot.data.stronghold.StrongholdConstants;
 import ninjabrainbot.io.preferences.MultipleChoicePreferenceDataTypes.McVersion;
 import ninjabrainbot.util.Coords;
 import ninjabrainbot.util.ISet;
+import ninjabrainbot.util.TopK;
 
 public class Posterior {
 
-	private McVersion version;
+	private final McVersion version;
+	private final Fossil fossil;
+	// The throw that the domain of the posterior, i.e. the set of chunks that can
+	// have the stronghold, is constructed from, see createDomain().
+	private final DomainThrow domainThrow;
 
-	IPrior prior;
-	ArrayList<Chunk> chunks;
+	// Log of the prior weights of the chunks, in the same order as
+	// conditionedChunks.
+	private final double[] priorLogWeights;
+	// Log of the weights conditioned on the throws, not normalized. Chunks that
+	// have been pruned or discarded have log weight -Infinity, and all log weights
+	// are NaN if the throws are inconsistent.
+	private final double[] logWeights;
+	private boolean inconsistent;
+	// Conditioned on the throws but not on the closest stronghold. The order of
+	// the chunks never changes, so that the per-chunk caches below, and the caches
+	// of each conditioned throw, can be indexed in the same way.
+	ChunkGrid conditionedChunks;
+	ChunkGrid chunks;
+	private final ArrayList<ConditionedThrow> conditionedThrows;
+	// Closest stronghold probability of each chunk, NaN if it has not been
+	// calculated yet. Only depends on the position of the first throw, so it is
+	// shared by all posteriors updated from this one.
+	private final double[] closestStrongholdProbabilities;
+	// Blocks of conditionedChunks, the likelihood of a throw is only evaluated in
+	// the blocks that can contribute to the posterior, see condition().
+	private final ChunkBlocks blocks;
+	private final double maxDiscardedProbability;
+	// Total probability of the chunks that have been discarded, see
+	// discardNegligibleChunks().
+	private double discardedProbability;
+	// Index in conditionedChunks of each chunk in chunks, null if the indices are
+	// the same.
+	private int[] chunkIndices;
 
 	public Posterior(ISet<IThrow> eyeThrows, IDivineContext divineContext, boolean useAdvStatistics, McVersion version) {
+		this(eyeThrows, divineContext, useAdvStatistics, false, version);
+	}
+
+	public Posterior(ISet<IThrow> eyeThrows, IDivineContext divineContext, boolean useAdvStatistics, boolean parallel, McVersion version) {
+		this(eyeThrows, divineContext, useAdvStatistics, parallel, 0, version);
+	}
+
+	/**
+	 * @param parallel                if true, the closest stronghold condition is
+	 *                                evaluated on multiple threads. The result is
+	 *                                identical to the serial evaluation.
+	 * @param maxDiscardedProbability the probability that may be discarded after
+	 *                                each throw by dropping the least likely
+	 *                                chunks, 0 to keep all chunks.
+	 */
+	public Posterior(ISet<IThrow> eyeThrows, IDivineContext divineContext, boolean useAdvStatistics, boolean parallel, double maxDiscardedProbability, McVersion version) {
 		this.version = version;
-		double sigma0 = eyeThrows.get(0).getStd();
-		prior = new RayApproximatedPrior(eyeThrows.get(0), Math.min(1.0, 30 * sigma0) / 180.0 * Math.PI, divineContext, version);
-		chunks = new ArrayList<Chunk>();
-		double px = eyeThrows.get(0).x();
-		double pz = eyeThrows.get(0).z();
+		this.fossil = getFossil(divineContext);
+		this.maxDiscardedProbability = maxDiscardedProbability;
+		IThrow firstThrow = eyeThrows.get(0);
+		domainThrow = new DomainThrow(firstThrow);
+		conditionedChunks = createDomain(divineContext);
+		priorLogWeights = new double[conditionedChunks.size];
+		for (int i = 0; i < conditionedChunks.size; i++) {
+			priorLogWeights[i] = Math.log(conditionedChunks.weight[i]);
+		}
+		logWeights = priorLogWeights.clone();
+		blocks = new ChunkBlocks(conditionedChunks);
+		closestStrongholdProbabilities = new double[conditionedChunks.size];
+		Arrays.fill(closestStrongholdProbabilities, Double.NaN);
+		conditionedThrows = new ArrayList<ConditionedThrow>();
+		for (IThrow t : eyeThrows) {
+			condition(new ConditionedThrow(t, null));
+		}
+		createFinalChunks(firstThrow, useAdvStatistics, parallel);
+	}
+
+	/**
+	 * Creates a posterior on the same domain as the given posterior, reusing as
+	 * much of its state as possible.
+	 */
+	private Posterior(Posterior previous, ISet<IThrow> eyeThrows, boolean useAdvStatistics, boolean parallel) {
+		this.version = previous.version;
+		this.fossil = previous.fossil;
+		this.domainThrow = previous.domainThrow;
+		this.priorLogWeights = previous.priorLogWeights;
+		this.closestStrongholdProbabilities = previous.closestStrongholdProbabilities;
+		this.blocks = previous.blocks;
+		this.maxDiscardedProbability = previous.maxDiscardedProbability;
+		conditionedChunks = previous.conditionedChunks.copy();
+		conditionedThrows = new ArrayList<ConditionedThrow>();
+		if (previous.isUnmodifiedPrefixOf(eyeThrows)) {
+			conditionedThrows.addAll(previous.conditionedThrows);
+			logWeights = previous.logWeights.clone();
+			inconsistent = previous.inconsistent;
+			discardedProbability = previous.discardedProbability;
+		} else {
+			logWeights = priorLogWeights.clone();
+		}
+		for (int i = conditionedThrows.size(); i < eyeThrows.size(); i++) {
+			IThrow t = eyeThrows.get(i);
+			ConditionedThrow cached = previous.findConditionedThrow(t);
+			if (cached != null && cached.isUnmodified(t)) {
+				condition(cached);
+			} else {
+				condition(new ConditionedThrow(t, cached != null ? cached.gammas : null));
+			}
+		}
+		createFinalChunks(eyeThrows.get(0), useAdvStatistics, parallel);
+	}
+
+	/**
+	 * Returns a posterior for the given throws, reusing the state of this
+	 * posterior if possible:
+	 * <ul>
+	 * <li>If throws have been appended, only the new throws are conditioned
+	 * on.</li>
+	 * <li>If the angle or standard deviation of a throw has changed, the cached
+	 * angles from that throw to every chunk are reused, and the likelihoods of the
+	 * other throws are reused as is.</li>
+	 * </ul>
+	 * The posterior is rebuilt from scratch if the domain changes, i.e. if the
+	 * first throw has been removed or its angle has changed. Throws are compared by
+	 * value, so the given throws do not need to be the same objects as the ones
+	 * this posterior was created from.
+	 */
+	public Posterior update(ISet<IThrow> eyeThrows, IDivineContext divineContext, boolean useAdvStatistics, McVersion version) {
+		return update(eyeThrows, divineContext, useAdvStatistics, false, version);
+	}
+
+	public Posterior update(ISet<IThrow> eyeThrows, IDivineContext divineContext, boolean useAdvStatistics, boolean parallel, McVersion version) {
+		return update(eyeThrows, divineContext, useAdvStatistics, parallel, 0, version);
+	}
+
+	public Posterior update(ISet<IThrow> eyeThrows, IDivineContext divineContext, boolean useAdvStatistics, boolean parallel, double maxDiscardedProbability, McVersion version) {
+		if (hasSameDomain(eyeThrows, divineContext, maxDiscardedProbability, version))
+			return new Posterior(this, eyeThrows, useAdvStatistics, parallel);
+		return new Posterior(eyeThrows, divineContext, useAdvStatistics, parallel, maxDiscardedProbability, version);
+	}
+
+	private boolean hasSameDomain(ISet<IThrow> eyeThrows, IDivineContext divineContext, double maxDiscardedProbability, McVersion version) {
+		if (version != this.version || !Objects.equals(fossil, getFossil(divineContext)) || maxDiscardedProbability != this.maxDiscardedProbability)
+			return false;
+		return eyeThrows.size() != 0 && domainThrow.matches(eyeThrows.get(0));
+	}
+
+	/**
+	 * Returns true if the posteriors share their domain, i.e. if one of them has
+	 * been updated from the other without being rebuilt.
+	 */
+	boolean hasSameDomainAs(Posterior other) {
+		return blocks == other.blocks;
+	}
+
+	private boolean isUnmodifiedPrefixOf(ISet<IThrow> eyeThrows) {
+		if (eyeThrows.size() < conditionedThrows.size())
+			return false;
+		for (int i = 0; i < conditionedThrows.size(); i++) {
+			if (!conditionedThrows.get(i).isUnmodified(eyeThrows.get(i)))
+				return false;
+		}
+		return true;
+	}
+
+	private ConditionedThrow findConditionedThrow(IThrow t) {
+		for (ConditionedThrow conditionedThrow : conditionedThrows) {
+			if (conditionedThrow.hasSamePosition(t))
+				return conditionedThrow;
+		}
+		return null;
+	}
+
+	private static Fossil getFossil(IDivineContext divineContext) {
+		return divineContext != null ? divineContext.getFossil() : null;
+	}
+
+	private static double getPriorTolerance(double std) {
+		return Math.min(1.0, 30 * std) / 180.0 * Math.PI;
+	}
+
+	/**
+	 * Returns the prior chunks in the cone of the domain throw, which contains the
+	 * cone around the first throw for every angle in the same sector, see
+	 * DomainThrow. Chunks that are too far from the first throw get weight 0. The
+	 * domain is narrowed to the cones of the first two throws when they are
+	 * conditioned on, see narrow(), so that the domain does not have to be rebuilt
+	 * when the second throw is added or changed, or when the first throw is
+	 * corrected.
+	 */
+	private ChunkGrid createDomain(IDivineContext divineContext) {
+		RayApproximatedPrior prior = new RayApproximatedPrior(domainThrow, domainThrow.tolerance, divineContext, version);
+		// The prior is not used after this point, so its chunks are conditioned in
+		// place instead of being copied.
+		ChunkGrid chunks = prior.getChunkGrid();
+		double px = domainThrow.x;
+		double pz = domainThrow.z;
 		double maxDist = StrongholdConstants.getMaxDistance(px, pz) / 16.0;
 		double maxDist2 = maxDist * maxDist;
-		for (Chunk c : prior.getChunks()) {
-			Chunk clone = c.clone();
-			double dx = clone.x - px / 16.0;
-			double dz = clone.z - pz / 16.0;
+		for (int i = 0; i < chunks.size; i++) {
+			double dx = chunks.x[i] - px / 16.0;
+			double dz = chunks.z[i] - pz / 16.0;
 			if (dx * dx + dz * dz > maxDist2) {
-				clone.weight = 0;
+				chunks.weight[i] = 0;
 			}
-			chunks.add(clone);
 		}
-		for (IThrow t : eyeThrows) {
-			condition(t);
+		return chunks;
+	}
+
+	private void createFinalChunks(IThrow firstThrow, boolean useAdvStatistics, boolean parallel) {
+		exponentiateLogWeights();
+		if (maxDiscardedProbability > 0) {
+			// Leave out the discarded chunks
+			chunkIndices = conditionedChunks.indicesOfNonZeroWeights();
+			chunks = conditionedChunks.subset(chunkIndices);
+		} else {
+			chunks = conditionedChunks.copy();
 		}
 		if (useAdvStatistics)
-			closestStrongholdCondition(eyeThrows.get(0), 0.001);
+			closestStrongholdCondition(firstThrow, 0.001, parallel);
 	}
 
-	public void condition(IThrow t) {
-		// Update weights
-		chunks.forEach((chunk) -> updateConditionalProbability(chunk, t));
-		// Normalize
-		double weightSum = 0.0;
-		for (Chunk chunk : chunks) {
-			weightSum += chunk.weight;
+	/**
+	 * Conditions the log weights on the given throw, coarse to fine. The
+	 * likelihood of each block of chunks is bounded from above, and the blocks are
+	 * evaluated chunk by chunk in order of decreasing bound on their conditioned
+	 * weight, until the bound on the weight of the remaining blocks is at most
+	 * PRUNING_TOLERANCE times the largest conditioned weight of the evaluated
+	 * chunks, which is a lower bound of their total weight. The remaining blocks
+	 * get weight 0. The normalized weights therefore differ from the exact ones by
+	 * at most PRUNING_TOLERANCE in total variation. The weights are compared
+	 * relative to the largest bound, so that nothing underflows, and the log
+	 * likelihood of each chunk is added without exponentiating it.
+	 */
+	private void condition(ConditionedThrow t) {
+		conditionedThrows.add(t);
+		if (inconsistent)
+			return;
+		if (conditionedThrows.size() <= NARROWING_THROW + 1)
+			narrow(t);
+		final double[] logW = logWeights;
+		final double[] logBounds = new double[blocks.numBlocks];
+		double maxLogBound = Double.NEGATIVE_INFINITY;
+		for (int b = 0; b < blocks.numBlocks; b++) {
+			// The weight of a block is at most its size times its largest weight
+			double maxLogWeight = Double.NEGATIVE_INFINITY;
+			for (int k = blocks.start[b]; k < blocks.start[b + 1]; k++) {
+				maxLogWeight = Math.max(maxLogWeight, logW[blocks.chunkIndices[k]]);
+			}
+			logBounds[b] = Math.log(blocks.start[b + 1] - blocks.start[b]) + maxLogWeight + t.logLikelihoodUpperBounds[b];
+			maxLogBound = Math.max(maxLogBound, logBounds[b]);
+		}
+		if (maxLogBound == Double.NEGATIVE_INFINITY)
+			return;
+		final double[] bounds = new double[blocks.numBlocks];
+		double remainingBound = 0;
+		for (int b = 0; b < blocks.numBlocks; b++) {
+			bounds[b] = Math.exp(logBounds[b] - maxLogBound);
+			remainingBound += bounds[b];
+		}
+		double maxConditionedLogWeight = Double.NEGATIVE_INFINITY;
+		double maxLogLikelihood = Double.NEGATIVE_INFINITY;
+		boolean[] isEvaluated = new boolean[blocks.numBlocks];
+		for (int b : TopK.largest(bounds, blocks.numBlocks, blocks.numBlocks)) {
+			if (remainingBound <= PRUNING_TOLERANCE * Math.exp(maxConditionedLogWeight - maxLogBound))
+				break;
+			isEvaluated[b] = true;
+			remainingBound -= bounds[b];
+			t.calculateLogLikelihoods(b, logW);
+			for (int k = blocks.start[b]; k < blocks.start[b + 1]; k++) {
+				int i = blocks.chunkIndices[k];
+				if (logW[i] == Double.NEGATIVE_INFINITY)
+					continue;
+				double logLikelihood = t.logLikelihoods[i];
+				logW[i] += logLikelihood;
+				maxConditionedLogWeight = Math.max(maxConditionedLogWeight, logW[i]);
+				maxLogLikelihood = Math.max(maxLogLikelihood, logLikelihood);
+			}
+		}
+		for (int b = 0; b < blocks.numBlocks; b++) {
+			if (isEvaluated[b])
+				continue;
+			for (int k = blocks.start[b]; k < blocks.start[b + 1]; k++) {
+				logW[blocks.chunkIndices[k]] = Double.NEGATIVE_INFINITY;
+			}
+		}
+		if (maxLogLikelihood < MIN_LOG_LIKELIHOOD) {
+			// The throw does not point to any chunk that is left
+			inconsistent = true;
+			Arrays.fill(logW, Double.NaN);
+			return;
+		}
+		if (maxDiscardedProbability > 0)
+			discardNegligibleChunks(maxConditionedLogWeight);
+	}
+
+	/**
+	 * Sets the log weight of the chunks outside the cone around the given throw,
+	 * with the prior tolerance of the throw, to -Infinity, so that the likelihood
+	 * of the throw and of later throws is only evaluated where the cones of the
+	 * first two throws intersect. Since the domain is wider than the cone of the
+	 * first throw, both of them are narrowed to. The narrowing is done as part of conditioning,
+	 * in the same order when the posterior is updated as when it is rebuilt, so
+	 * the results are identical. If no chunk with weight is inside the cone, i.e.
+	 * if the throws are inconsistent, nothing is narrowed, so that the posterior
+	 * fails in the same way as without narrowing.
+	 */
+	private void narrow(ConditionedThrow t) {
+		Wedge wedge = new Wedge(t, getPriorTolerance(t.std), version);
+		final double[] logW = logWeights;
+		boolean[] isInside = new boolean[logW.length];
+		boolean hasWeightInside = false;
+		for (int i = 0; i < logW.length; i++) {
+			if (logW[i] == Double.NEGATIVE_INFINITY)
+				continue;
+			isInside[i] = wedge.contains(conditionedChunks.x[i], conditionedChunks.z[i]);
+			hasWeightInside |= isInside[i];
+		}
+		if (!hasWeightInside)
+			return;
+		for (int i = 0; i < logW.length; i++) {
+			if (!isInside[i])
+				logW[i] = Double.NEGATIVE_INFINITY;
+		}
+	}
+
+	/**
+	 * Sets the weight of the chunks that are less likely than
+	 * maxDiscardedProbability / n times the most likely chunk to 0, where n is the
+	 * number of chunks that are left, so that their total probability is at most
+	 * maxDiscardedProbability. Discarded chunks are never evaluated again, and
+	 * they are left out of the final chunks.
+	 */
+	private void discardNegligibleChunks(double maxLogWeight) {
+		final double[] logW = logWeights;
+		int n = 0;
+		for (int i = 0; i < logW.length; i++) {
+			if (logW[i] != Double.NEGATIVE_INFINITY)
+				n++;
+		}
+		double threshold = maxLogWeight + Math.log(maxDiscardedProbability / n);
+		for (int i = 0; i < logW.length; i++) {
+			if (logW[i] != Double.NEGATIVE_INFINITY && logW[i] < threshold) {
+				// The total weight is at least the largest weight
+				discardedProbability += Math.exp(logW[i] - maxLogWeight);
+				logW[i] = Double.NEGATIVE_INFINITY;
+			}
+		}
+	}
+
+	/**
+	 * Sets the weights of conditionedChunks to the normalized exponentials of the
+	 * log weights, shifted by the largest log weight so that the largest weight
+	 * does not underflow.
+	 */
+	private void exponentiateLogWeights() {
+		double maxLogWeight = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < logWeights.length; i++) {
+			maxLogWeight = Math.max(maxLogWeight, logWeights[i]);
 		}
-		final double totalWeight = weightSum;
-		chunks.forEach((chunk) -> chunk.weight /= totalWeight);
+		// If every weight is 0 or NaN, all weights become NaN
+		for (int i = 0; i < logWeights.length; i++) {
+			conditionedChunks.weight[i] = Math.exp(logWeights[i] - maxLogWeight);
+		}
+		conditionedChunks.normalize();
+	}
+
+	/**
+	 * Returns an upper bound of the probability that the stronghold is in one of
+	 * the chunks that have been discarded, summed over all throws.
+	 */
+	public double getDiscardedProbability() {
+		return discardedProbability;
 	}
 
 	/**
@@ -71,40 +402,37 @@ public class Posterior {
 	 * the given tolerance.
 	 */
 	public Chunk getClosestPossibleChunk(double tolerance, IThrow position) {
-		Chunk closest = null;
+		int closest = -1;
 		double minDist = Double.POSITIVE_INFINITY;
-		for (Chunk c : chunks) {
-			if (c.weight > tolerance) {
-				double dist = c.getOverworldDistance(version, position);
+		double playerX = position.isNether() ? position.x() * 8 : position.x();
+		double playerZ = position.isNether() ? position.z() * 8 : position.z();
+		int strongholdChunkCoord = StrongholdConstants.getStrongholdChunkCoord(version);
+		for (int i = 0; i < chunks.size; i++) {
+			if (chunks.weight[i] > tolerance) {
+				double deltax = 16 * chunks.x[i] + strongholdChunkCoord - playerX;
+				double deltaz = 16 * chunks.z[i] + strongholdChunkCoord - playerZ;
+				double dist = (int) Math.sqrt(deltax * deltax + deltaz * deltaz);
 				if (dist < minDist) {
 					minDist = dist;
-					closest = c;
+					closest = i;
 				}
 			}
 		}
-		return closest;
+		return closest == -1 ? null : chunks.getChunk(closest);
 	}
 
 	public Chunk getMostProbableChunk() {
-		Optional<Chunk> prediction = getChunks().stream().max(Comparator.comparingDouble((chunk) -> chunk.weight));
-		try {
-			return prediction.get();
-		} catch (Exception e) {
+		int i = chunks.indexOfMaxWeight();
+		if (i == -1)
 			return new Chunk(0, 0);
-		}
+		return chunks.getChunk(i);
 	}
 
-	private void updateConditionalProbability(Chunk chunk, IThrow t) {
-		double deltax = chunk.x * 16 + StrongholdConstants.getStrongholdChunkCoord(version) - t.x();
-		double deltaz = chunk.z * 16 + StrongholdConstants.getStrongholdChunkCoord(version) - t.z();
-		double gamma = -180 / Math.PI * Math.atan2(deltax, deltaz); // mod 360 necessary?
-		double delta = Math.abs((gamma - t.alpha()) % 360.0);
-		delta = Math.min(delta, 360.0 - delta);
-		double s = t.getStd();
-		chunk.weight *= Math.exp(-delta * delta / (2 * s * s));
-	}
-
-	public List<Chunk> getChunks() {
+	/**
+	 * Returns the chunks of the posterior. The returned grid is owned by the
+	 * posterior and should be treated as read-only.
+	 */
+	public ChunkGrid getChunks() {
 		return chunks;
 	}
 
@@ -115,47 +443,139 @@ public class Posterior {
 	 * 
 	 * @param probabilityTheshold
 	 */
-	private void closestStrongholdCondition(IThrow t, double probabilityTheshold) {
+	private void closestStrongholdCondition(IThrow firstThrow, double probabilityTheshold, boolean parallel) {
+		ThrowPosition t = new ThrowPosition(firstThrow);
+		// The top 100 chunks and all chunks above the threshold are evaluated exactly,
+		// in order of decreasing weight. Only those chunks need to be selected and
+		// sorted.
+		int numAboveThreshold = 0;
+		for (int i = 0; i < chunks.size; i++) {
+			if (chunks.weight[i] > probabilityTheshold)
+				numAboveThreshold++;
+		}
+		int[] sampledChunks = chunks.indicesOfLargestWeights(Math.max(100, numAboveThreshold));
+		if (parallel)
+			calculateClosestStrongholdProbabilitiesInParallel(t, sampledChunks);
 		// Update weights
-		chunks.sort((c1, c2) -> -Double.compare(c1.weight, c2.weight));
+		boolean[] isSampled = new boolean[chunks.size];
 		double totalClosestStrongholdProbability = 0;
 		int samples = 0;
-		for (int i = 0; i < chunks.size(); i++) {
-			Chunk c = chunks.get(i);
-			if (i < 100 || c.weight > probabilityTheshold) {
-				double a = closestStrongholdCondition(c, t);
-				totalClosestStrongholdProbability += a;
-				samples++;
+		for (int i : sampledChunks) {
+			isSampled[i] = true;
+			double a = closestStrongholdProbabilities[domainIndex(i)];
+			if (Double.isNaN(a)) {
+				a = closestStrongholdProbability(i, t);
+				closestStrongholdProbabilities[domainIndex(i)] = a;
+			}
+			if (a == OUTSIDE_RINGS) {
+				// The weight of chunks outside the rings is left as is, but they still count as
+				// a sample with probability 0
+				a = 0;
 			} else {
-				c.weight *= totalClosestStrongholdProbability / samples; // Approximation, no need to be precise for
-																			// chunks that dont matter
+				chunks.weight[i] *= a;
 			}
+			totalClosestStrongholdProbability += a;
+			samples++;
+		}
+		double averageClosestStrongholdProbability = totalClosestStrongholdProbability / samples;
+		for (int i = 0; i < chunks.size; i++) {
+			if (!isSampled[i])
+				chunks.weight[i] *= averageClosestStrongholdProbability; // Approximation, no need to be precise for chunks that dont matter
 		}
 		// Normalize
-		double weightSum = 0.0;
-		for (Chunk chunk : chunks) {
-			weightSum += chunk.weight;
+		chunks.normalize();
+	}
+
+	/**
+	 * Fills in the closest stronghold probability cache for the given chunks. The
+	 * probability of each
+	 * chunk is independent of the other chunks, and the results are only combined
+	 * afterwards, on the calling thread and in the same order as in the serial
+	 * case, so the final weights are identical.
+	 */
+	private void calculateClosestStrongholdProbabilitiesInParallel(ThrowPosition t, int[] sampledChunks) {
+		int[] missing = new int[sampledChunks.length];
+		int n = 0;
+		for (int i : sampledChunks) {
+			if (Double.isNaN(closestStrongholdProbabilities[domainIndex(i)]))
+				missing[n++] = i;
+		}
+		if (n == 0)
+			return;
+		ForkJoinPool.commonPool().invoke(new ClosestStrongholdProbabilityTask(t, missing, 0, n));
+	}
+
+	private class ClosestStrongholdProbabilityTask extends RecursiveAction {
+
+		private static final long serialVersionUID = -3547920481725519063L;
+		private static final int SEQUENTIAL_THRESHOLD = 8;
+
+		private final ThrowPosition t;
+		private final int[] indices;
+		private final int start, end;
+
+		ClosestStrongholdProbabilityTask(ThrowPosition t, int[] indices, int start, int end) {
+			this.t = t;
+			this.indices = indices;
+			this.start = start;
+			this.end = end;
+		}
+
+		@Override
+		protected void compute() {
+			if (end - start <= SEQUENTIAL_THRESHOLD) {
+				for (int k = start; k < end; k++) {
+					int i = indices[k];
+					closestStrongholdProbabilities[domainIndex(i)] = closestStrongholdProbability(i, t);
+				}
+				return;
+			}
+			int mid = (start + end) >>> 1;
+			invokeAll(new ClosestStrongholdProbabilityTask(t, indices, start, mid), new ClosestStrongholdProbabilityTask(t, indices, mid, end));
 		}
-		final double totalWeight = weightSum;
-		chunks.forEach((chunk) -> chunk.weight /= totalWeight);
+
+	}
+
+	/**
+	 * Returns the index in conditionedChunks of the chunk at the given index in
+	 * chunks.
+	 */
+	private int domainIndex(int i) {
+		return chunkIndices != null ? chunkIndices[i] : i;
 	}
 
 	int K = 7;
 
-	private double closestStrongholdCondition(Chunk chunk, IThrow t) {
+	static final double PRUNING_TOLERANCE = 1e-6;
+	// A throw is inconsistent with the previous throws if its likelihood is below
+	// the smallest double for every chunk that is left
+	static final double MIN_LOG_LIKELIHOOD = Math.log(Double.MIN_VALUE);
+	// Index of the last throw whose cone the domain is narrowed to, see narrow()
+	static final int NARROWING_THROW = 1;
+	// Width of the sectors that the angle of the first throw is rounded to when the
+	// domain is built, in degrees. Corrections of the first throw within a sector
+	// do not rebuild the domain.
+	static final double DOMAIN_SECTOR_WIDTH = 0.2;
+	private static final int MAX_CHUNKS_PER_BLOCK = ChunkBlocks.BLOCK_SIZE * ChunkBlocks.BLOCK_SIZE;
+
+	private static final double OUTSIDE_RINGS = -1;
+
+	private double closestStrongholdProbability(int chunkIndex, ThrowPosition t) {
+		int cx = chunks.x[chunkIndex];
+		int cz = chunks.z[chunkIndex];
 		double closestStrongholdProbability = 1;
-		double deltax = chunk.x + (StrongholdConstants.getStrongholdChunkCoord(version) - t.x()) / 16.0;
-		double deltaz = chunk.z + (StrongholdConstants.getStrongholdChunkCoord(version) - t.z()) / 16.0;
-		double r_p = Math.sqrt(t.x() * t.x() + t.z() * t.z()) / 16.0;
+		double deltax = cx + (StrongholdConstants.getStrongholdChunkCoord(version) - t.x) / 16.0;
+		double deltaz = cz + (StrongholdConstants.getStrongholdChunkCoord(version) - t.z) / 16.0;
+		double r_p = t.r;
 		double d_i = Math.sqrt(deltax * deltax + deltaz * deltaz);
-		double phi_prime = Coords.getPhi(chunk.x, chunk.z);
-		double phi_p = Coords.getPhi(t.x(), t.z());
-		double maxDist = StrongholdConstants.getMaxDistance(t.x(), t.z()) / 16.0;
+		double phi_prime = Coords.getPhi(cx, cz);
+		double phi_p = t.phi;
+		double maxDist = t.maxDist;
 		double stronghold_r_min = r_p - maxDist;
 		double stronghold_r_max = r_p + maxDist;
-		Ring ring_chunk = Ring.get(Math.sqrt(chunk.x * chunk.x + chunk.z * chunk.z));
+		Ring ring_chunk = Ring.get(Math.sqrt(cx * cx + cz * cz));
 		if (ring_chunk == null) {
-			return 0;
+			return OUTSIDE_RINGS;
 		}
 		for (int i = 0; i < StrongholdConstants.numRings; i++) {
 			Ring ring = Ring.get(i);
@@ -172,7 +592,6 @@ public class Posterior {
 				closestStrongholdProbability *= 1.0 - integral;
 			}
 		}
-		chunk.weight *= closestStrongholdProbability;
 		return closestStrongholdProbability;
 	}
 
@@ -215,4 +634,258 @@ public class Posterior {
 		return integral;
 	}
 
+	/**
+	 * The values of a throw that the closest stronghold probability of every chunk
+	 * depends on, calculated once per throw.
+	 */
+	private static class ThrowPosition {
+
+		final double x, z;
+		// Distance from the origin and max distance to the stronghold, in chunks
+		final double r, maxDist;
+		final double phi;
+
+		ThrowPosition(IThrow t) {
+			x = t.x();
+			z = t.z();
+			r = Math.sqrt(x * x + z * z) / 16.0;
+			maxDist = StrongholdConstants.getMaxDistance(x, z) / 16.0;
+			phi = Coords.getPhi(x, z);
+		}
+
+	}
+
+	/**
+	 * The chunks within a tolerance of the direction of a ray, as seen from the
+	 * origin of the ray. The wedge is the intersection of two half planes, n * c +
+	 * d >= 0 in chunk coords.
+	 */
+	private static class Wedge {
+
+		private final double n0x, n0z, d0, n1x, n1z, d1;
+
+		Wedge(IRay ray, double tolerance, McVersion version) {
+			double phi = ray.alpha() / 180.0 * Math.PI;
+			double ux = -Math.sin(phi - tolerance);
+			double uz = Math.cos(phi - tolerance);
+			double vx = -Math.sin(phi + tolerance);
+			double vz = Math.cos(phi + tolerance);
+			double ox = (ray.x() - StrongholdConstants.getStrongholdChunkCoord(version)) / 16.0;
+			double oz = (ray.z() - StrongholdConstants.getStrongholdChunkCoord(version)) / 16.0;
+			// The normal of each boundary is the component of the other boundary that is
+			// orthogonal to it, so that it points into the wedge
+			double uv = ux * vx + uz * vz;
+			n0x = vx - uv * ux;
+			n0z = vz - uv * uz;
+			d0 = -(n0x * ox + n0z * oz);
+			n1x = ux - uv * vx;
+			n1z = uz - uv * vz;
+			d1 = -(n1x * ox + n1z * oz);
+		}
+
+		boolean contains(int cx, int cz) {
+			return n0x * cx + n0z * cz + d0 >= 0 && n1x * cx + n1z * cz + d1 >= 0;
+		}
+
+	}
+
+	/**
+	 * The values of a throw that the domain of the posterior depends on. The angle
+	 * is rounded to the center of its sector, and the tolerance is widened by half
+	 * a sector, so that the domain contains the cone of every throw from the same
+	 * position and with the same standard deviation whose angle is in the sector.
+	 */
+	private static class DomainThrow implements IRay {
+
+		final double x, z, alpha, tolerance;
+
+		DomainThrow(IThrow t) {
+			x = t.x();
+			z = t.z();
+			alpha = getSector(t.alpha()) * DOMAIN_SECTOR_WIDTH;
+			tolerance = getPriorTolerance(t.getStd()) + DOMAIN_SECTOR_WIDTH / 2 / 180.0 * Math.PI;
+		}
+
+		private static long getSector(double alpha) {
+			return Math.round(alpha / DOMAIN_SECTOR_WIDTH);
+		}
+
+		@Override
+		public double x() {
+			return x;
+		}
+
+		@Override
+		public double z() {
+			return z;
+		}
+
+		@Override
+		public double alpha() {
+			return alpha;
+		}
+
+		boolean matches(IThrow t) {
+			return t.x() == x && t.z() == z && getSector(t.alpha()) * DOMAIN_SECTOR_WIDTH == alpha && getPriorTolerance(t.getStd()) + DOMAIN_SECTOR_WIDTH / 2 / 180.0 * Math.PI == tolerance;
+		}
+
+	}
+
+	/**
+	 * A throw that the posterior has been conditioned on, together with the values
+	 * it had at that time. Caches the angle from the throw to each chunk, which
+	 * does not depend on the angle or standard deviation of the throw, and the log
+	 * likelihood of each chunk. Both are calculated the first time they are
+	 * needed, and are NaN until then. Which likelihoods are needed depends on the
+	 * weights that the throw is conditioned on, but the cached values do not. The
+	 * values are calculated by the AngleKernel a block at a time.
+	 */
+	private class ConditionedThrow implements IRay {
+
+		final double x, z, alpha, std;
+		final double[] gammas;
+		final double[] logLikelihoods;
+		// Upper bound of the log likelihood of the chunks in each block
+		final double[] logLikelihoodUpperBounds;
+		// Buffers for the chunks of a block that are passed to the kernel
+		private final int[] batch = new int[MAX_CHUNKS_PER_BLOCK];
+		private final int[] missingGammas = new int[MAX_CHUNKS_PER_BLOCK];
+		private final double[] dx = new double[MAX_CHUNKS_PER_BLOCK];
+		private final double[] dz = new double[MAX_CHUNKS_PER_BLOCK];
+		private final double[] batchGammas = new double[MAX_CHUNKS_PER_BLOCK];
+		private final double[] batchLogLikelihoods = new double[MAX_CHUNKS_PER_BLOCK];
+
+		ConditionedThrow(IThrow t, double[] cachedGammas) {
+			x = t.x();
+			z = t.z();
+			alpha = t.alpha();
+			std = t.getStd();
+			gammas = cachedGammas != null ? cachedGammas : createUncalculated();
+			logLikelihoods = createUncalculated();
+			logLikelihoodUpperBounds = calculateLogLikelihoodUpperBounds();
+		}
+
+		private double[] createUncalculated() {
+			double[] values = new double[conditionedChunks.size];
+			Arrays.fill(values, Double.NaN);
+			return values;
+		}
+
+		/**
+		 * Calculates the log likelihood of the chunks in block b that have weight and
+		 * have not been calculated yet, all at once.
+		 */
+		void calculateLogLikelihoods(int b, double[] logW) {
+			int n = 0;
+			int m = 0;
+			int strongholdChunkCoord = StrongholdConstants.getStrongholdChunkCoord(version);
+			for (int k = blocks.start[b]; k < blocks.start[b + 1]; k++) {
+				int i = blocks.chunkIndices[k];
+				if (logW[i] == Double.NEGATIVE_INFINITY || !Double.isNaN(logLikelihoods[i]))
+					continue;
+				batch[n++] = i;
+				if (Double.isNaN(gammas[i])) {
+					missingGammas[m] = i;
+					dx[m] = conditionedChunks.x[i] * 16 + strongholdChunkCoord - x;
+					dz[m] = conditionedChunks.z[i] * 16 + strongholdChunkCoord - z;
+					m++;
+				}
+			}
+			if (n == 0)
+				return;
+			AngleKernel kernel = AngleKernels.INSTANCE;
+			if (m > 0) {
+				kernel.angles(dx, dz, batchGammas, m);
+				for (int j = 0; j < m; j++) {
+					gammas[missingGammas[j]] = batchGammas[j];
+				}
+			}
+			for (int j = 0; j < n; j++) {
+				batchGammas[j] = gammas[batch[j]];
+			}
+			kernel.logLikelihoods(batchGammas, alpha, std, batchLogLikelihoods, n);
+			for (int j = 0; j < n; j++) {
+				logLikelihoods[batch[j]] = batchLogLikelihoods[j];
+			}
+		}
+
+		/**
+		 * Bounds the log likelihood of each block using the range of angles from the
+		 * throw to the bounding box of the block.
+		 */
+		private double[] calculateLogLikelihoodUpperBounds() {
+			final int strongholdChunkCoord = StrongholdConstants.getStrongholdChunkCoord(version);
+			double[] bounds = new double[blocks.numBlocks];
+			for (int b = 0; b < blocks.numBlocks; b++) {
+				double x0 = blocks.minX[b] * 16 + strongholdChunkCoord - x;
+				double x1 = blocks.maxX[b] * 16 + strongholdChunkCoord - x;
+				double z0 = blocks.minZ[b] * 16 + strongholdChunkCoord - z;
+				double z1 = blocks.maxZ[b] * 16 + strongholdChunkCoord - z;
+				if (x0 <= 0 && x1 >= 0 && z0 <= 0 && z1 >= 0) {
+					bounds[b] = 0;
+					continue;
+				}
+				// The block does not contain the throw, so it covers less than 180 degrees
+				// as seen from the throw, and the extreme angles are at the corners.
+				double center = angle((x0 + x1) / 2, (z0 + z1) / 2);
+				double min = 0;
+				double max = 0;
+				for (int corner = 0; corner < 4; corner++) {
+					double d = wrap(angle(corner < 2 ? x0 : x1, corner % 2 == 0 ? z0 : z1) - center);
+					min = Math.min(min, d);
+					max = Math.max(max, d);
+				}
+				double d = wrap(alpha - center);
+				double delta = 0;
+				if (d > max) {
+					delta = Math.min(d - max, min + 360 - d);
+				} else if (d < min) {
+					delta = Math.min(min - d, d + 360 - max);
+				}
+				bounds[b] = -delta * delta / (2 * std * std);
+			}
+			return bounds;
+		}
+
+		private double angle(double deltax, double deltaz) {
+			return -180 / Math.PI * Math.atan2(deltax, deltaz);
+		}
+
+		/**
+		 * Returns the given angle in degrees, wrapped to (-180, 180].
+		 */
+		private double wrap(double angle) {
+			angle %= 360.0;
+			if (angle > 180)
+				angle -= 360;
+			else if (angle <= -180)
+				angle += 360;
+			return angle;
+		}
+
+		@Override
+		public double x() {
+			return x;
+		}
+
+		@Override
+		public double z() {
+			return z;
+		}
+
+		@Override
+		public double alpha() {
+			return alpha;
+		}
+
+		boolean hasSamePosition(IThrow other) {
+			return other.x() == x && other.z() == z;
+		}
+
+		boolean isUnmodified(IThrow other) {
+			return hasSamePosition(other) && other.alpha() == alpha && other.getStd() == std;
+		}
+
+	}
+
 }
@@ -0,0 +1,273 @@
+package ninjabrainbot.data.statistics;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URL;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.FloatBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.NoSuchElementException;
+import java.util.zip.CRC32;
+
+import ninjabrainbot.data.stronghold.Chunk;
+import ninjabrainbot.data.stronghold.StrongholdConstants;
+import ninjabrainbot.util.Logger;
+
+/**
+ * The exact prior (including biome snapping, without any fossil) over the whole
+ * world, precomputed at build time by PrecomputedPriorGenerator and memory
+ * mapped at runtime.
+ *
+ * Biome snapping is biased in the negative direction, so the prior is not
+ * symmetric with respect to the axes, but it is symmetric with respect to the
+ * diagonal x = z. Only the half z <= x of the domain -maxChunk <= x, z <=
+ * maxChunk is stored. The file consists of a header of 6 ints (magic number,
+ * format version, maxChunk, snappingRadius, checksum of the classes the prior
+ * is generated from, CRC-32 of the weights) followed by one float per stored
+ * chunk, ordered by z and then by x, all little-endian. In the resource, the
+ * first bytes of all floats come first, then the second bytes and so on, which
+ * makes the jar compress it much better. It does not depend on the Minecraft
+ * version, because the prior is defined in chunk coords.
+ */
+public class PrecomputedPrior implements IPrior, IPointwisePrior {
+
+	static final String RESOURCE = "/stronghold_prior.bin";
+	static final int MAGIC = 0x4E425052; // "NBPR"
+	static final int FORMAT_VERSION = 3;
+	static final int HEADER_SIZE = 6 * Integer.BYTES;
+	static final int INPUT_CHECKSUM_OFFSET = 16;
+	static final int CHECKSUM_OFFSET = 20;
+
+	private static PrecomputedPrior instance;
+	private static boolean loaded = false;
+
+	private final int maxChunk;
+	private final FloatBuffer weights;
+
+	private PrecomputedPrior(FloatBuffer weights, int maxChunk) {
+		this.weights = weights;
+		this.maxChunk = maxChunk;
+	}
+
+	/**
+	 * Starts loading the precomputed prior on a background thread, so that the
+	 * first triangulation does not have to wait for it.
+	 */
+	public static void loadInBackground() {
+		Thread thread = new Thread(PrecomputedPrior::get, "Precomputed prior loader");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	/**
+	 * Returns the precomputed prior, or null if it is not available (for example
+	 * if running from sources that have not been built with Maven).
+	 */
+	public static synchronized PrecomputedPrior get() {
+		if (!loaded) {
+			loaded = true;
+			long t0 = System.currentTimeMillis();
+			try {
+				instance = load();
+			} catch (IOException e) {
+				Logger.log("Could not load precomputed prior: " + e);
+			}
+			Logger.log("Time to load precomputed prior: " + (System.currentTimeMillis() - t0) / 1000f + " seconds.");
+		}
+		return instance;
+	}
+
+	@Override
+	public double weight(int cx, int cz) {
+		int x = cx;
+		int z = cz;
+		if (z > x) {
+			x = cz;
+			z = cx;
+		}
+		if (x > maxChunk || z < -maxChunk)
+			return 0;
+		return weights.get(index(x, z, maxChunk));
+	}
+
+	@Override
+	public Iterable<Chunk> getChunks() {
+		return () -> new Iterator<Chunk>() {
+			int x = -maxChunk;
+			int z = -maxChunk;
+
+			@Override
+			public boolean hasNext() {
+				return x <= maxChunk;
+			}
+
+			@Override
+			public Chunk next() {
+				if (x > maxChunk)
+					throw new NoSuchElementException();
+				Chunk chunk = new Chunk(x, z, weight(x, z));
+				if (++z > maxChunk) {
+					z = -maxChunk;
+					x++;
+				}
+				return chunk;
+			}
+		};
+	}
+
+	/**
+	 * Returns the index of chunk (x, z) in the file, for z <= x.
+	 */
+	static int index(int x, int z, int maxChunk) {
+		int size1d = 2 * maxChunk + 1;
+		long row = z + maxChunk;
+		return (int) (row * size1d - row * (row - 1) / 2 + x - z);
+	}
+
+	static int numStoredChunks(int maxChunk) {
+		return index(maxChunk, maxChunk, maxChunk) + 1;
+	}
+
+	static PrecomputedPrior load() throws IOException {
+		URL url = PrecomputedPrior.class.getResource(RESOURCE);
+		if (url == null) {
+			Logger.log("Precomputed prior not found, falling back to approximated priors.");
+			return null;
+		}
+		ByteBuffer header;
+		try (InputStream in = url.openStream()) {
+			header = readHeader(in);
+		}
+		if (header == null || header.getInt(0) != MAGIC || header.getInt(4) != FORMAT_VERSION || header.getInt(12) != StrongholdConstants.snappingRadius) {
+			Logger.log("Precomputed prior has the wrong format, falling back to approximated priors.");
+			return null;
+		}
+		Path path = getExtractedPath();
+		if (!isCopyOf(path, header))
+			extract(url, path, header.getInt(8));
+		PrecomputedPrior prior = map(path, header);
+		if (prior == null) {
+			// The copy has been modified since it was extracted
+			extract(url, path, header.getInt(8));
+			prior = map(path, header);
+		}
+		if (prior == null)
+			Logger.log("Precomputed prior is corrupted, falling back to approximated priors.");
+		return prior;
+	}
+
+	static Path getExtractedPath() {
+		return getCacheDirectory().resolve("stronghold_prior_v" + FORMAT_VERSION + ".bin");
+	}
+
+	/**
+	 * Maps the extracted copy of the prior, and returns null unless its size and
+	 * the checksum of its weights match the header of the resource.
+	 */
+	private static PrecomputedPrior map(Path path, ByteBuffer header) throws IOException {
+		int maxChunk = header.getInt(8);
+		ByteBuffer buffer;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			if (channel.size() != HEADER_SIZE + (long) numStoredChunks(maxChunk) * Float.BYTES)
+				return null;
+			MappedByteBuffer mappedBuffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+			buffer = mappedBuffer.order(ByteOrder.LITTLE_ENDIAN);
+		}
+		((Buffer) buffer).position(HEADER_SIZE);
+		ByteBuffer weights = buffer.slice().order(ByteOrder.LITTLE_ENDIAN);
+		if (checksum(weights.duplicate()) != header.getInt(CHECKSUM_OFFSET))
+			return null;
+		return new PrecomputedPrior(weights.asFloatBuffer(), maxChunk);
+	}
+
+	/**
+	 * Returns the directory that the prior is extracted to. Files inside a jar
+	 * cannot be memory mapped, and the resource is stored in a different order
+	 * than it is used in, so it is extracted the first time it is used. The
+	 * directory belongs to the user, so that other users cannot replace the copy.
+	 */
+	private static Path getCacheDirectory() {
+		String osName = System.getProperty("os.name").toLowerCase(Locale.ROOT);
+		String userHome = System.getProperty("user.home");
+		String localAppData = System.getenv("LOCALAPPDATA");
+		if (osName.startsWith("windows") && localAppData != null)
+			return Paths.get(localAppData, "Ninjabrain Bot");
+		if (osName.equals("mac os x"))
+			return Paths.get(userHome, "Library", "Caches", "Ninjabrain Bot");
+		String cacheHome = System.getenv("XDG_CACHE_HOME");
+		if (cacheHome != null && !cacheHome.isEmpty())
+			return Paths.get(cacheHome, "ninjabrainbot");
+		return Paths.get(userHome, ".cache", "ninjabrainbot");
+	}
+
+	/**
+	 * Returns true if the file has the same header as the resource. The header
+	 * includes the checksum of the weights, so a copy of a different prior is not
+	 * used, and map() verifies the weights of the copy.
+	 */
+	private static boolean isCopyOf(Path path, ByteBuffer header) throws IOException {
+		if (!Files.exists(path))
+			return false;
+		try (InputStream in = Files.newInputStream(path)) {
+			return header.equals(readHeader(in));
+		}
+	}
+
+	private static void extract(URL url, Path path, int maxChunk) throws IOException {
+		long t0 = System.currentTimeMillis();
+		int numWeights = numStoredChunks(maxChunk);
+		byte[] bytes = new byte[HEADER_SIZE + numWeights * Float.BYTES];
+		try (DataInputStream in = new DataInputStream(url.openStream())) {
+			in.readFully(bytes);
+		}
+		ByteBuffer buffer = ByteBuffer.allocate(bytes.length);
+		buffer.put(bytes, 0, HEADER_SIZE);
+		for (int i = 0; i < numWeights; i++) {
+			for (int b = 0; b < Float.BYTES; b++) {
+				buffer.put(bytes[HEADER_SIZE + b * numWeights + i]);
+			}
+		}
+		((Buffer) buffer).flip();
+		Files.createDirectories(path.getParent());
+		Path tempPath = Files.createTempFile(path.getParent(), "stronghold_prior", ".tmp");
+		try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining())
+				channel.write(buffer);
+		}
+		Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		Logger.log("Time to extract precomputed prior: " + (System.currentTimeMillis() - t0) / 1000f + " seconds.");
+	}
+
+	/**
+	 * Returns the header, or null if the stream ends before it.
+	 */
+	private static ByteBuffer readHeader(InputStream in) throws IOException {
+		byte[] header = new byte[HEADER_SIZE];
+		int n = 0;
+		int read;
+		while (n < HEADER_SIZE && (read = in.read(header, n, HEADER_SIZE - n)) != -1)
+			n += read;
+		return n == HEADER_SIZE ? ByteBuffer.wrap(header).order(ByteOrder.LITTLE_ENDIAN) : null;
+	}
+
+	/**
+	 * Returns the checksum of the weights that is stored in the header.
+	 */
+	static int checksum(ByteBuffer weights) {
+		CRC32 crc = new CRC32();
+		crc.update(weights);
+		return (int) crc.getValue();
+	}
+
+}
@@ -0,0 +1,102 @@
+package ninjabrainbot.data.statistics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+import ninjabrainbot.data.stronghold.Ring;
+import ninjabrainbot.data.stronghold.StrongholdConstants;
+import ninjabrainbot.util.Coords;
+import ninjabrainbot.util.Logger;
+
+/**
+ * Generates the file read by PrecomputedPrior. Run by Maven in the
+ * process-classes phase, with the output file as the only argument. The file is
+ * only regenerated if it does not exist, has a different format, or was
+ * generated from different classes, see INPUTS.
+ */
+public class PrecomputedPriorGenerator {
+
+	// The classes that the weights are calculated by
+	static final Class<?>[] INPUTS = { Prior.class, Ring.class, StrongholdConstants.class, Coords.class, PrecomputedPriorGenerator.class };
+
+	public static void main(String[] args) throws IOException {
+		Path path = Paths.get(args[0]);
+		int inputChecksum = inputChecksum();
+		if (isUpToDate(path, inputChecksum)) {
+			Logger.log("Precomputed prior is up to date.");
+			return;
+		}
+		long t0 = System.currentTimeMillis();
+		Prior prior = new Prior();
+		int maxChunk = StrongholdConstants.maxChunk;
+		int numWeights = PrecomputedPrior.numStoredChunks(maxChunk);
+		ByteBuffer weights = ByteBuffer.allocate(numWeights * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		for (int z = -maxChunk; z <= maxChunk; z++) {
+			for (int x = z; x <= maxChunk; x++) {
+				weights.putFloat((float) prior.chunks[prior.size1d * (x - prior.x0) + z - prior.z0].weight);
+			}
+		}
+		((Buffer) weights).flip();
+		ByteBuffer buffer = ByteBuffer.allocate(PrecomputedPrior.HEADER_SIZE + numWeights * Float.BYTES).order(ByteOrder.LITTLE_ENDIAN);
+		buffer.putInt(PrecomputedPrior.MAGIC);
+		buffer.putInt(PrecomputedPrior.FORMAT_VERSION);
+		buffer.putInt(maxChunk);
+		buffer.putInt(StrongholdConstants.snappingRadius);
+		buffer.putInt(inputChecksum);
+		buffer.putInt(PrecomputedPrior.checksum(weights.duplicate()));
+		// The bytes are stored one plane at a time, see PrecomputedPrior
+		for (int b = 0; b < Float.BYTES; b++) {
+			for (int i = 0; i < numWeights; i++) {
+				buffer.put(weights.get(i * Float.BYTES + b));
+			}
+		}
+		((Buffer) buffer).flip();
+		Files.createDirectories(path.toAbsolutePath().getParent());
+		Path tempPath = Files.createTempFile(path.toAbsolutePath().getParent(), path.getFileName().toString(), ".tmp");
+		try (FileChannel channel = FileChannel.open(tempPath, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+			while (buffer.hasRemaining())
+				channel.write(buffer);
+		}
+		Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		Logger.log("Time to generate precomputed prior: " + (System.currentTimeMillis() - t0) / 1000f + " seconds.");
+	}
+
+	private static boolean isUpToDate(Path path, int inputChecksum) throws IOException {
+		if (!Files.exists(path) || Files.size(path) < PrecomputedPrior.HEADER_SIZE)
+			return false;
+		try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(PrecomputedPrior.HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining() && channel.read(header) >= 0)
+				;
+			return header.getInt(0) == PrecomputedPrior.MAGIC && header.getInt(4) == PrecomputedPrior.FORMAT_VERSION && header.getInt(8) == StrongholdConstants.maxChunk
+					&& header.getInt(12) == StrongholdConstants.snappingRadius && header.getInt(PrecomputedPrior.INPUT_CHECKSUM_OFFSET) == inputChecksum;
+		}
+	}
+
+	/**
+	 * Returns the CRC-32 of the class files of the inputs.
+	 */
+	private static int inputChecksum() throws IOException {
+		CRC32 crc = new CRC32();
+		byte[] bytes = new byte[8192];
+		for (Class<?> input : INPUTS) {
+			try (InputStream in = input.getResourceAsStream(input.getSimpleName() + ".class")) {
+				int read;
+				while ((read = in.read(bytes)) != -1)
+					crc.update(bytes, 0, read);
+			}
+		}
+		return (int) crc.getValue();
+	}
+
+}
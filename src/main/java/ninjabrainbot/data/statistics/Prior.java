@@ -8,7 +8,6 @@ import ninjabrainbot.data.divine.DivineContext;
 import ninjabrainbot.data.divine.IDivineContext;
 import ninjabrainbot.data.stronghold.Chunk;
 import ninjabrainbot.data.stronghold.Ring;
-import ninjabrainbot.data.stronghold.RingIterator;
 import ninjabrainbot.data.stronghold.StrongholdConstants;
 import ninjabrainbot.util.Coords;
 import ninjabrainbot.util.Logger;
@@ -45,8 +44,7 @@ public class Prior implements IPrior {
 	 * Calculates weights (prior probabilities) for all chunks in the domain.
 	 */
 	protected void setInitialWeights() {
-		RingIterator ringIterator = new RingIterator();
-		for (Ring ring : ringIterator) {
+		for (Ring ring : Ring.rings) {
 			int c0 = (int) ring.innerRadius - margin();
 			int c1 = (int) ring.outerRadius + margin();
 			int xStart = (-c1 > x0 ? -c1 : x0);
@@ -100,43 +98,71 @@ public class Prior implements IPrior {
 	}
 
 	/**
-	 * Simulates biome snapping to smooth the weights.
+	 * Returns the offset weights for biome snapping as a table, where the weight of
+	 * offset k is at index k + StrongholdConstants.snappingRadius.
 	 */
-	protected void smoothWeights() {
+	protected static int[] getOffsetWeightTable() {
 		HashMap<Integer, Integer> offsetWeights = getOffsetWeights();
-		double offsetWeightSum = 0;
+		int[] table = new int[2 * StrongholdConstants.snappingRadius + 1];
 		for (int k = -StrongholdConstants.snappingRadius; k <= StrongholdConstants.snappingRadius; k++) {
-			int xOffsetWeight = offsetWeights.get(k);
-			for (int l = -StrongholdConstants.snappingRadius; l <= StrongholdConstants.snappingRadius; l++) {
-				int zOffsetWeight = offsetWeights.get(l);
-				offsetWeightSum += xOffsetWeight * zOffsetWeight;
-			}
+			table[k + StrongholdConstants.snappingRadius] = offsetWeights.get(k);
+		}
+		return table;
+	}
+
+	/**
+	 * Simulates biome snapping to smooth the weights. The offset weights in the x
+	 * and z directions are independent, so the 2D convolution is done as one pass
+	 * in the z direction followed by one pass in the x direction.
+	 */
+	protected void smoothWeights() {
+		final int r = StrongholdConstants.snappingRadius;
+		final int[] offsetWeights = getOffsetWeightTable();
+		long offsetWeightSum1d = 0;
+		for (int w : offsetWeights) {
+			offsetWeightSum1d += w;
+		}
+		final double offsetWeightSum = (double) offsetWeightSum1d * offsetWeightSum1d;
+		final int oldSize1d = size1d;
+		final double[] oldWeights = new double[chunks.length];
+		for (int i = 0; i < chunks.length; i++) {
+			oldWeights[i] = chunks[i].weight;
 		}
-		Chunk[] oldChunks = chunks;
-		int oldSize1d = size1d;
-		int oldX0 = x0;
-		int oldZ0 = z0;
+		final int oldX0 = x0;
+		final int oldZ0 = z0;
 		setSize((x0 + x1) / 2, (z0 + z1) / 2, this.radius);
-		chunks = new Chunk[size1d * size1d];
-		for (int i = x0; i <= x1; i++) {
-			for (int j = z0; j <= z1; j++) {
-				int idx = idx(i, j);
-				chunks[idx] = new Chunk(i, j);
-				chunks[idx].weight = 0;
+		final int dx = x0 - oldX0;
+		final int dz = z0 - oldZ0;
+		// Smooth in the z direction, for every x in the old domain
+		final double[] zSmoothed = new double[oldSize1d * size1d];
+		for (int a = 0; a < oldSize1d; a++) {
+			final int oldRow = a * oldSize1d + dz - r;
+			final int row = a * size1d;
+			for (int b = 0; b < size1d; b++) {
+				double w = 0;
+				for (int l = 0; l <= 2 * r; l++) {
+					w += oldWeights[oldRow + b + l] * offsetWeights[l];
+				}
+				zSmoothed[row + b] = w;
+			}
+		}
+		// Smooth in the x direction
+		final double[] smoothed = new double[size1d * size1d];
+		for (int a = 0; a < size1d; a++) {
+			final int row = a * size1d;
+			for (int k = 0; k <= 2 * r; k++) {
+				final int zSmoothedRow = (a + dx - r + k) * size1d;
+				final int offsetWeight = offsetWeights[k];
+				for (int b = 0; b < size1d; b++) {
+					smoothed[row + b] += zSmoothed[zSmoothedRow + b] * offsetWeight;
+				}
 			}
 		}
+		chunks = new Chunk[size1d * size1d];
 		for (int i = x0; i <= x1; i++) {
 			for (int j = z0; j <= z1; j++) {
-				double w = 0;
-				for (int k = -StrongholdConstants.snappingRadius; k <= StrongholdConstants.snappingRadius; k++) {
-					int xOffsetWeight = offsetWeights.get(k);
-					for (int l = -StrongholdConstants.snappingRadius; l <= StrongholdConstants.snappingRadius; l++) {
-						int zOffsetWeight = offsetWeights.get(l);
-						int idx2 = oldSize1d * (j + l - oldZ0) + i + k - oldX0;
-						w += oldChunks[idx2].weight * xOffsetWeight * zOffsetWeight / offsetWeightSum;
-					}
-				}
-				chunks[idx(i, j)].weight = w;
+				int idx = idx(i, j);
+				chunks[idx] = new Chunk(i, j, smoothed[idx] / offsetWeightSum);
 			}
 		}
 	}
@@ -0,0 +1,202 @@
+package ninjabrainbot.data.statistics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import ninjabrainbot.data.datalock.AlwaysUnlocked;
+import ninjabrainbot.data.divine.DivineContext;
+import ninjabrainbot.data.divine.Fossil;
+import ninjabrainbot.data.stronghold.StrongholdConstants;
+
+/**
+ * Prior weights of all chunks in the world, stored as prefix sums along each
+ * row of constant x, so that the probability that a stronghold is within a disk
+ * of radius r can be calculated in O(r) time. The rows are split into segments
+ * of SEGMENT_LENGTH chunks that are calculated the first time they are needed,
+ * so that the first query in an area costs about as much as constructing a
+ * prior around it. At most maxSegments segments are kept, the least recently
+ * used ones are evicted with the clock algorithm, so that the memory of an index
+ * stays bounded no matter how much of the world is queried. Thread safe.
+ */
+public class PriorIndex {
+
+	private static final int MAX_CACHED_INDICES = 4;
+	private static final int SEGMENT_LENGTH = 64;
+	// About 4 MB per index, enough for the area around a few blind coords
+	static final int MAX_SEGMENTS = 8192;
+	private static final Map<Integer, PriorIndex> cache = new LinkedHashMap<Integer, PriorIndex>(16, 0.75f, true) {
+		private static final long serialVersionUID = 1L;
+
+		@Override
+		protected boolean removeEldestEntry(Map.Entry<Integer, PriorIndex> eldest) {
+			return size() > MAX_CACHED_INDICES;
+		}
+	};
+
+	private final IPointwisePrior prior;
+	private final int maxChunk;
+	private final int size1d;
+	private final int segmentsPerRow;
+	private final AtomicReferenceArray<double[]> segments;
+	// Set when a segment is used, and cleared by the clock hand. Races only make
+	// the eviction less accurate, so the flags are not synchronized.
+	private final boolean[] recentlyUsed;
+	private final int maxSegments;
+	private final AtomicInteger numSegments = new AtomicInteger();
+	private int clockHand; // Guarded by recentlyUsed
+
+	public PriorIndex(IPointwisePrior prior) {
+		this(prior, MAX_SEGMENTS);
+	}
+
+	PriorIndex(IPointwisePrior prior, int maxSegments) {
+		this.prior = prior;
+		this.maxSegments = maxSegments;
+		maxChunk = StrongholdConstants.maxChunk;
+		size1d = 2 * maxChunk + 1;
+		segmentsPerRow = (size1d + SEGMENT_LENGTH - 1) / SEGMENT_LENGTH;
+		segments = new AtomicReferenceArray<double[]>(size1d * segmentsPerRow);
+		recentlyUsed = new boolean[size1d * segmentsPerRow];
+	}
+
+	/**
+	 * Returns the shared index for the given fossil (null if there is none), or
+	 * null if there is no pointwise prior for it. The approximated prior is
+	 * available for all fossils, the exact prior is only available without fossil.
+	 */
+	public static PriorIndex get(Fossil fossil, boolean approximated) {
+		int key = (fossil == null ? 16 : fossil.x) + (approximated ? 32 : 0);
+		synchronized (cache) {
+			PriorIndex index = cache.get(key);
+			if (index == null) {
+				IPointwisePrior prior = createPointwisePrior(fossil, approximated);
+				if (prior == null)
+					return null;
+				index = new PriorIndex(prior);
+				cache.put(key, index);
+			}
+			return index;
+		}
+	}
+
+	/**
+	 * Returns the probability that there is a stronghold in a chunk (cx, cz) such
+	 * that (cx - x)^2 + (cz - z)^2 < radius^2, all in chunk coords.
+	 */
+	public double probabilityWithin(double x, double z, double radius) {
+		double radius2 = radius * radius;
+		int i0 = Math.max((int) Math.floor(x - radius), -maxChunk);
+		int i1 = Math.min((int) Math.ceil(x + radius), maxChunk);
+		double probability = 0;
+		for (int i = i0; i <= i1; i++) {
+			double dx2 = (i - x) * (i - x);
+			if (dx2 >= radius2)
+				continue;
+			double halfWidth = Math.sqrt(radius2 - dx2);
+			int j0 = (int) Math.floor(z - halfWidth);
+			int j1 = (int) Math.ceil(z + halfWidth);
+			// Correct for rounding errors in the square root
+			while (j0 <= j1 && (j0 - z) * (j0 - z) + dx2 >= radius2)
+				j0++;
+			while (j1 >= j0 && (j1 - z) * (j1 - z) + dx2 >= radius2)
+				j1--;
+			j0 = Math.max(j0, -maxChunk);
+			j1 = Math.min(j1, maxChunk);
+			if (j0 > j1)
+				continue;
+			probability += rowSum(i, j0 + maxChunk, j1 + maxChunk);
+		}
+		return probability;
+	}
+
+	/**
+	 * Returns the sum of the weights in row x = cx, for k0 <= z + maxChunk <= k1.
+	 */
+	private double rowSum(int cx, int k0, int k1) {
+		int s0 = k0 / SEGMENT_LENGTH;
+		int s1 = k1 / SEGMENT_LENGTH;
+		if (s0 == s1) {
+			double[] segment = segment(cx, s0);
+			return segment[k1 - s0 * SEGMENT_LENGTH + 1] - segment[k0 - s0 * SEGMENT_LENGTH];
+		}
+		double[] firstSegment = segment(cx, s0);
+		double sum = firstSegment[SEGMENT_LENGTH] - firstSegment[k0 - s0 * SEGMENT_LENGTH];
+		for (int s = s0 + 1; s < s1; s++) {
+			sum += segment(cx, s)[SEGMENT_LENGTH];
+		}
+		return sum + segment(cx, s1)[k1 - s1 * SEGMENT_LENGTH + 1];
+	}
+
+	/**
+	 * Returns the prefix sums of the given segment of row x = cx, where element k
+	 * is the sum of the first k weights in the segment.
+	 */
+	private double[] segment(int cx, int s) {
+		int index = (cx + maxChunk) * segmentsPerRow + s;
+		double[] segment = segments.get(index);
+		if (segment != null) {
+			if (!recentlyUsed[index])
+				recentlyUsed[index] = true;
+			return segment;
+		}
+		int z0 = s * SEGMENT_LENGTH - maxChunk;
+		int length = Math.min(SEGMENT_LENGTH, maxChunk - z0 + 1);
+		segment = new double[length + 1];
+		double sum = 0;
+		for (int k = 0; k < length; k++) {
+			sum += prior.weight(cx, z0 + k);
+			segment[k + 1] = sum;
+		}
+		// Another thread may have calculated the same segment, both are identical
+		if (segments.compareAndSet(index, null, segment)) {
+			recentlyUsed[index] = true;
+			if (numSegments.incrementAndGet() > maxSegments)
+				evict();
+		}
+		return segment;
+	}
+
+	/**
+	 * Evicts segments until at most 3/4 of maxSegments are left, so that the cost
+	 * of moving the clock hand is spread over many new segments. The hand moves
+	 * over all slots, evicting the segments that have not been used since it last
+	 * passed them, and clearing the flags of the others.
+	 */
+	private void evict() {
+		synchronized (recentlyUsed) {
+			int target = maxSegments - maxSegments / 4;
+			while (numSegments.get() > target) {
+				int index = clockHand;
+				clockHand = (clockHand + 1) % recentlyUsed.length;
+				double[] segment = segments.get(index);
+				if (segment == null)
+					continue;
+				if (recentlyUsed[index]) {
+					recentlyUsed[index] = false;
+				} else if (segments.compareAndSet(index, segment, null)) {
+					numSegments.decrementAndGet();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Returns the number of segments that are currently calculated.
+	 */
+	int numSegments() {
+		return numSegments.get();
+	}
+
+	private static IPointwisePrior createPointwisePrior(Fossil fossil, boolean approximated) {
+		if (!approximated)
+			return fossil == null ? PrecomputedPrior.get() : null;
+		// The divine context of the prior must not change, so it gets its own
+		DivineContext divineContext = new DivineContext(new AlwaysUnlocked());
+		if (fossil != null)
+			divineContext.setFossil(fossil);
+		return new ApproximatedPrior(0, 0, 0, divineContext);
+	}
+
+}
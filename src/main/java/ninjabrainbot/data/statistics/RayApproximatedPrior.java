@@ -1,13 +1,10 @@
 package ninjabrainbot.data.statistics;
 
-import java.util.ArrayList;
-
 import ninjabrainbot.data.divine.IDivineContext;
 import ninjabrainbot.data.stronghold.Chunk;
 import ninjabrainbot.data.stronghold.Ring;
 import ninjabrainbot.data.stronghold.StrongholdConstants;
 import ninjabrainbot.io.preferences.MultipleChoicePreferenceDataTypes.McVersion;
-import ninjabrainbot.util.Coords;
 import ninjabrainbot.util.Logger;
 
 /**
@@ -15,7 +12,7 @@ import ninjabrainbot.util.Logger;
  */
 public class RayApproximatedPrior implements IPrior {
 
-	ArrayList<Chunk> chunks;
+	ChunkGrid chunks;
 	IDivineContext divineContext;
 
 	public RayApproximatedPrior(IRay r, IDivineContext divineContext, McVersion version) {
@@ -23,15 +20,23 @@ public class RayApproximatedPrior implements IPrior {
 	}
 
 	public RayApproximatedPrior(IRay r, double tolerance, IDivineContext divineContext, McVersion version) {
+		this(r, tolerance, divineContext, version, true);
+	}
+
+	/**
+	 * @param usePrecomputedPrior if false, the weights are always approximated,
+	 *                            even if the precomputed prior is available.
+	 */
+	RayApproximatedPrior(IRay r, double tolerance, IDivineContext divineContext, McVersion version, boolean usePrecomputedPrior) {
 		long t0 = System.currentTimeMillis();
 		this.divineContext = divineContext;
-		construct(r, tolerance, version);
+		construct(r, tolerance, version, usePrecomputedPrior);
 		Logger.log("Time to construct prior: " + (System.currentTimeMillis() - t0) / 1000f + " seconds.");
 	}
 
-	private void construct(IRay r, double tolerance, McVersion version) {
+	private void construct(IRay r, double tolerance, McVersion version, boolean usePrecomputedPrior) {
 		double range = 5000.0 / 16;
-		chunks = new ArrayList<Chunk>();
+		chunks = new ChunkGrid(1024);
 		double phi = r.alpha() / 180.0 * Math.PI;
 		// direction vector
 		double dx = -Math.sin(phi);
@@ -51,6 +56,8 @@ public class RayApproximatedPrior implements IPrior {
 		double uk = majorX ? uz / ux : ux / uz;
 		double vk = majorX ? vz / vx : vx / vz;
 		boolean rightPositive = majorPositive ? vk - uk > 0 : uk - vk > 0;
+		// The exact prior is only precomputed without fossil
+		PrecomputedPrior precomputedPrior = usePrecomputedPrior && (divineContext == null || !divineContext.hasDivine()) ? PrecomputedPrior.get() : null;
 		int i = (int) (majorPositive ? Math.ceil(iter_start_major) : Math.floor(iter_start_major));
 		while ((majorX ? (i - iter_start_major) / dx : (i - iter_start_major) / dz) < range) {
 			// while (i - iter_start_major < range) {
@@ -62,45 +69,41 @@ public class RayApproximatedPrior implements IPrior {
 			if (j > StrongholdConstants.maxChunk)
 				j = StrongholdConstants.maxChunk;
 			while (rightPositive ? j < minor_v : j > minor_v && j <= StrongholdConstants.maxChunk && j >= -StrongholdConstants.maxChunk) {
-				Chunk chunk = majorX ? new Chunk(i, j) : new Chunk(j, i);
-
-				int n = 2;
-				double weight = 0;
-				if (n == 1) {
-					weight = strongholdDensity(chunk.x, chunk.z);
-				} else {
-					for (int k = 0; k < n; k++) {
-						double x = chunk.x - 0.5 + k / (n - 1.0);
-						for (int l = 0; l < n; l++) {
-							double z = chunk.z - 0.5 + l / (n - 1.0);
-							weight += strongholdDensity(x, z);
-						}
-					}
-				}
-				weight /= (double) n * n; // Approximate percentage of chunk thats inside the ring
+				int cx = majorX ? i : j;
+				int cz = majorX ? j : i;
 
-				chunk.weight = weight;
-				chunks.add(chunk);
+				double weight = precomputedPrior != null ? precomputedPrior.weight(cx, cz) : approximatedWeight(cx, cz);
+				chunks.add(cx, cz, weight);
 				j += rightPositive ? 1 : -1;
 			}
 			i += majorPositive ? 1 : -1;
 		}
 	}
 
+	private double approximatedWeight(int cx, int cz) {
+		int n = 2;
+		double weight = 0;
+		if (n == 1) {
+			weight = strongholdDensity(cx, cz);
+		} else {
+			for (int k = 0; k < n; k++) {
+				double x = cx - 0.5 + k / (n - 1.0);
+				for (int l = 0; l < n; l++) {
+					double z = cz - 0.5 + l / (n - 1.0);
+					weight += strongholdDensity(x, z);
+				}
+			}
+		}
+		weight /= (double) n * n; // Approximate percentage of chunk thats inside the ring
+		return weight;
+	}
+
 	protected double strongholdDensity(double cx, double cz) {
 		double relativeWeight = 1.0;
 		double d2 = cx * cx + cz * cz;
 		double chunkR = Math.sqrt(d2);
 		if (chunkR <= Ring.get(0).outerRadiusPostSnapping && divineContext.hasDivine()) {
-			int m = StrongholdConstants.snappingRadius;
-			double w = 0;
-			for (int i = -m; i <= m; i++) {
-				for (int j = -m; j <= m; j++) {
-					w += divineContext.getDensityAtAngleBeforeSnapping(Coords.getPhi(cx + i, cz + j));
-				}
-			}
-			w /= (2 * m + 1) * (2 * m + 1);
-			relativeWeight *= w * 2.0 * Math.PI;
+			relativeWeight *= divineContext.getDensityAtChunkAfterSnapping(cx, cz) * 2.0 * Math.PI;
 		}
 		return relativeWeight * ApproximatedDensity.density(cx, cz);
 	}
@@ -174,6 +177,13 @@ public class RayApproximatedPrior implements IPrior {
 
 	@Override
 	public Iterable<Chunk> getChunks() {
+		return chunks.asChunks();
+	}
+
+	/**
+	 * Returns the chunks of the prior as primitive arrays.
+	 */
+	public ChunkGrid getChunkGrid() {
 		return chunks;
 	}
 
@@ -0,0 +1,24 @@
+package ninjabrainbot.data.statistics;
+
+/**
+ * AngleKernel that evaluates one chunk at a time, using Math.atan2.
+ */
+class ScalarAngleKernel extends AngleKernel {
+
+	@Override
+	void angles(double[] dx, double[] dz, double[] gammas, int n) {
+		for (int k = 0; k < n; k++) {
+			gammas[k] = -180 / Math.PI * Math.atan2(dx[k], dz[k]);
+		}
+	}
+
+	@Override
+	void logLikelihoods(double[] gammas, double alpha, double std, double[] logLikelihoods, int n) {
+		for (int k = 0; k < n; k++) {
+			double delta = Math.abs((gammas[k] - alpha) % 360.0);
+			delta = Math.min(delta, 360.0 - delta);
+			logLikelihoods[k] = -delta * delta / (2 * std * std);
+		}
+	}
+
+}
@@ -1,5 +1,6 @@
 package ninjabrainbot.data.stronghold;
 
+import java.util.Collections;
 import java.util.List;
 import java.util.stream.Collectors;
 import java.util.stream.StreamSupport;
@@ -8,7 +9,11 @@ import ninjabrainbot.util.Pair;
 
 public class Ring {
 
-	public static final List<Ring> rings = StreamSupport.stream(new RingIterator().spliterator(), false).collect(Collectors.toList());
+	/**
+	 * All rings, in order. Rings are immutable, so they are only created once and
+	 * shared instead of iterating over a new RingIterator.
+	 */
+	public static final List<Ring> rings = Collections.unmodifiableList(StreamSupport.stream(new RingIterator().spliterator(), false).collect(Collectors.toList()));
 
 	public final int numStrongholds;
 	public final int ring;
@@ -18,6 +23,9 @@ public class Ring {
 	// after snapping
 	public final double innerRadiusPostSnapping;
 	public final double outerRadiusPostSnapping;
+	// cos(pi / numStrongholds), the cosine of half the angle between two
+	// strongholds in the ring
+	public final double cosHalfSectionAngle;
 
 	public Ring(int strongholdsInRing, int ring) {
 		this.numStrongholds = strongholdsInRing;
@@ -26,6 +34,7 @@ public class Ring {
 		this.outerRadius = StrongholdConstants.distParam * ((4 + ring * 6) + 0.5D * 2.5D);
 		this.innerRadiusPostSnapping = this.innerRadius - (StrongholdConstants.snappingRadius + 1.0) * Math.sqrt(2);
 		this.outerRadiusPostSnapping = this.outerRadius + (StrongholdConstants.snappingRadius + 1.0) * Math.sqrt(2);
+		this.cosHalfSectionAngle = Math.cos(Math.PI / strongholdsInRing);
 	}
 
 	public static Ring get(int i) {
@@ -35,13 +44,15 @@ public class Ring {
 		return null;
 	}
 
+	/**
+	 * Returns the ring that contains the given distance from the origin (in
+	 * chunks), after snapping, or null if there is none. The rings are narrower
+	 * than the distance between their centers, so only the ring with the closest
+	 * center can contain it.
+	 */
 	public static Ring get(double chunkR) {
-		for (int k = 0; k < rings.size(); k++) {
-			if (rings.get(k).inRing(chunkR)) {
-				return rings.get(k);
-			}
-		}
-		return null;
+		Ring ring = get((int) Math.round((chunkR / StrongholdConstants.distParam - 4) / 6));
+		return ring != null && ring.inRing(chunkR) ? ring : null;
 	}
 
 	public static Pair<Ring, Ring> getClosestRings(double cx, double cz) {
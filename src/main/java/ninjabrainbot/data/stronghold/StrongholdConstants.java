@@ -12,14 +12,15 @@ public class StrongholdConstants {
 
 	/**
 	 * Returns the maximum distance the stronghold can be from the given position
-	 * (in blocks).
+	 * (in blocks). Depends only on the position, so callers that need it for many
+	 * chunks should calculate it once.
 	 */
 	public static double getMaxDistance(double x, double z) {
 		double r = Math.sqrt(x * x + z * z) / 16.0;
 		double maxDistance = Double.POSITIVE_INFINITY;
-		for (Ring ring : new RingIterator()) {
-			double inner = ring.innerRadius * ring.innerRadius + r * r - 2 * r * ring.innerRadius * Math.cos(Math.PI / ring.numStrongholds);
-			double outer = ring.outerRadius * ring.outerRadius + r * r - 2 * r * ring.outerRadius * Math.cos(Math.PI / ring.numStrongholds);
+		for (Ring ring : Ring.rings) {
+			double inner = ring.innerRadius * ring.innerRadius + r * r - 2 * r * ring.innerRadius * ring.cosHalfSectionAngle;
+			double outer = ring.outerRadius * ring.outerRadius + r * r - 2 * r * ring.outerRadius * ring.cosHalfSectionAngle;
 			double max = Math.sqrt(inner > outer ? inner : outer);
 			if (max < maxDistance)
 				maxDistance = max;
@@ -1,5 +1,7 @@
 package ninjabrainbot.gui;
 
+import java.io.IOException;
+
 import ninjabrainbot.data.DataStateHandler;
 import ninjabrainbot.data.IDataState;
 import ninjabrainbot.gui.frames.NinjabrainBotFrame;
@@ -8,11 +10,14 @@ import ninjabrainbot.gui.splash.Progress;
 import ninjabrainbot.gui.style.SizePreference;
 import ninjabrainbot.gui.style.StyleManager;
 import ninjabrainbot.gui.style.Theme;
+import ninjabrainbot.io.ApiServer;
 import ninjabrainbot.io.AutoResetTimer;
 import ninjabrainbot.io.ClipboardReader;
 import ninjabrainbot.io.KeyboardListener;
+import ninjabrainbot.io.LogFileReader;
 import ninjabrainbot.io.OBSOverlay;
 import ninjabrainbot.io.preferences.NinjabrainBotPreferences;
+import ninjabrainbot.util.Logger;
 import ninjabrainbot.util.Profiler;
 
 /**
@@ -23,8 +28,11 @@ public class GUI {
 	private NinjabrainBotPreferences preferences;
 
 	private ClipboardReader clipboardReader;
+	private LogFileReader logFileReader;
+	private Thread logFileThread;
 	private AutoResetTimer autoResetTimer;
 	private OBSOverlay obsOverlay;
+	private ApiServer apiServer;
 
 	private StyleManager styleManager;
 	private NinjabrainBotFrame ninjabrainBotFrame;
@@ -44,7 +52,7 @@ public class GUI {
 	private void initDataState() {
 		Progress.setTask("Creating calculator data", 0.01f);
 		Profiler.start("Init DataState");
-		dataStateHandler = new DataStateHandler(preferences);
+		dataStateHandler = new DataStateHandler(preferences, true);
 		dataState = dataStateHandler.getDataState();
 		Profiler.stop();
 	}
@@ -56,9 +64,16 @@ public class GUI {
 		dataStateHandler.addThrowStream(clipboardReader.whenNewThrowInputed());
 		dataStateHandler.addFossilStream(clipboardReader.whenNewFossilInputed());
 		Thread clipboardThread = new Thread(clipboardReader, "Clipboard reader");
-		KeyboardListener.init(clipboardReader, preferences.altClipboardReader);
+		KeyboardListener.init(clipboardReader);
 		clipboardThread.start();
 
+		Profiler.stopAndStart("Init log file reader");
+		logFileReader = new LogFileReader(preferences, dataStateHandler.getModificationLock());
+		dataStateHandler.addThrowStream(logFileReader.whenNewThrowInputed());
+		dataStateHandler.addFossilStream(logFileReader.whenNewFossilInputed());
+		setLogFileReaderEnabled(preferences.useLogFile.get());
+		preferences.useLogFile.whenModified().subscribe(b -> setLogFileReaderEnabled(b));
+
 		Profiler.stopAndStart("Setup hotkeys");
 		setupHotkeys();
 		Profiler.stop();
@@ -94,6 +109,8 @@ public class GUI {
 		preferences.autoReset.whenModified().subscribe(b -> autoResetTimer.setAutoResetEnabled(b));
 
 		obsOverlay = new OBSOverlay(ninjabrainBotFrame, preferences, dataStateHandler);
+		setApiServerEnabled(preferences.useApiServer.get());
+		preferences.useApiServer.whenModified().subscribe(b -> setApiServerEnabled(b));
 
 		ninjabrainBotFrame.checkIfOffScreen();
 		ninjabrainBotFrame.setVisible(true);
@@ -111,6 +128,36 @@ public class GUI {
 		preferences.hotkeyLock.whenTriggered().subscribe(__ -> dataStateHandler.toggleLocked());
 	}
 
+	private synchronized void setApiServerEnabled(boolean b) {
+		if (b && apiServer == null) {
+			try {
+				apiServer = new ApiServer(dataStateHandler, preferences.apiServerPort.get(), preferences.apiServerAllowedOrigins.get());
+			} catch (IOException e) {
+				Logger.log("Could not start the API server: " + e);
+			}
+		} else if (!b && apiServer != null) {
+			apiServer.dispose();
+			apiServer = null;
+		}
+	}
+
+	private synchronized void setLogFileReaderEnabled(boolean b) {
+		if (b && logFileThread == null) {
+			logFileThread = new Thread(logFileReader, "Log file reader");
+			logFileThread.setDaemon(true);
+			logFileThread.start();
+		} else if (!b && logFileThread != null) {
+			logFileThread.interrupt();
+			try {
+				// The reader has state, so the next thread may only start once this one is done
+				logFileThread.join();
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+			}
+			logFileThread = null;
+		}
+	}
+
 	private OptionsFrame getOrCreateOptionsFrame() {
 		if (optionsFrame == null) {
 			optionsFrame = new OptionsFrame(styleManager, preferences);
@@ -126,6 +173,8 @@ public class GUI {
 				preferences.windowX.set(ninjabrainBotFrame.getX());
 				preferences.windowY.set(ninjabrainBotFrame.getY());
 				obsOverlay.dispose();
+				setApiServerEnabled(false);
+				setLogFileReaderEnabled(false);
 				autoResetTimer.dispose();
 				dataStateHandler.dispose();
 			}
@@ -15,6 +15,7 @@ import java.awt.geom.RoundRectangle2D;
 import javax.swing.Box;
 import javax.swing.BoxLayout;
 import javax.swing.JButton;
+import javax.swing.JFileChooser;
 import javax.swing.JFrame;
 import javax.swing.JLabel;
 import javax.swing.JPanel;
@@ -167,7 +168,21 @@ public class OptionsFrame extends ThemedFrame {
 		column2.add(new CheckboxPanel(styleManager, I18n.get("settings.show_angle_errors"), preferences.showAngleErrors));
 		column2.add(new CheckboxPanel(styleManager, I18n.get("settings.show_angle_updates"), preferences.showAngleUpdates));
 		column2.add(new CheckboxPanel(styleManager, I18n.get("settings.use_advanced_stronghold_statistics"), preferences.useAdvStatistics));
+		column2.add(new CheckboxPanel(styleManager, I18n.get("settings.discard_negligible_chunks"), preferences.discardNegligibleChunks));
 		column2.add(new CheckboxPanel(styleManager, I18n.get("settings.use_alternative_clipboard_reader"), preferences.altClipboardReader));
+		column2.add(new CheckboxPanel(styleManager, I18n.get("settings.read_log_file"), preferences.useLogFile));
+		JButton logFileButton = new FlatButton(styleManager, I18n.get("settings.choose_log_file")) {
+			private static final long serialVersionUID = 2853405870462510863L;
+
+			@Override
+			public int getTextSize(SizePreference p) {
+				return p.TEXT_SIZE_SMALL;
+			}
+		};
+		logFileButton.setToolTipText(preferences.logFilePath.get());
+		logFileButton.addActionListener(p -> chooseLogFile(logFileButton));
+		logFileButton.setAlignmentX(0.5f);
+		column2.add(logFileButton);
 		column2.add(Box.createGlue());
 		return mainPanel;
 	}
@@ -235,6 +250,7 @@ public class OptionsFrame extends ThemedFrame {
 		overlayResetDelay = new FloatPreferencePanel(styleManager, I18n.get("settings.overlay_auto_hide_duration"), preferences.overlayHideDelay);
 		overlayResetDelay.setEnabled(preferences.overlayAutoHide.get());
 		ac2.add(overlayResetDelay, constraints);
+		ac2.add(new CheckboxPanel(styleManager, I18n.get("settings.api_server_enable", preferences.apiServerPort.get()), preferences.useApiServer), constraints);
 
 		constraints.weighty = 1;
 		ac2.add(Box.createGlue(), constraints);
@@ -251,6 +267,14 @@ public class OptionsFrame extends ThemedFrame {
 		return ac2;
 	}
 
+	private void chooseLogFile(JButton logFileButton) {
+		JFileChooser fileChooser = new JFileChooser(preferences.logFilePath.get());
+		if (fileChooser.showOpenDialog(this) == JFileChooser.APPROVE_OPTION) {
+			preferences.logFilePath.set(fileChooser.getSelectedFile().getAbsolutePath());
+			logFileButton.setToolTipText(preferences.logFilePath.get());
+		}
+	}
+
 	private void startCalibrating() {
 		calibrationPanel.startCalibrating();
 		tabbedPane.setVisible(false);
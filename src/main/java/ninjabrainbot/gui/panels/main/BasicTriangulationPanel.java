@@ -22,6 +22,8 @@ class BasicTriangulationPanel extends ThemedPanel implements IDisposable {
 	private static final long serialVersionUID = 5784318732643211103L;
 
 	public static final String CERTAINTY_TEXT = I18n.get("certainty");
+	// Smallest discarded probability that can change the displayed certainty
+	private static final double MIN_DISPLAYED_DISCARDED_PROBABILITY = 0.0005;
 
 	private NinjabrainBotPreferences preferences;
 
@@ -31,6 +33,7 @@ class BasicTriangulationPanel extends ThemedPanel implements IDisposable {
 	public ColorMapLabel currentAngleLabel;
 
 	Subscription chunkPredictionSubscription;
+	private double discardedProbability;
 
 	public BasicTriangulationPanel(StyleManager styleManager, NinjabrainBotPreferences preferences) {
 		super(styleManager);
@@ -62,6 +65,7 @@ class BasicTriangulationPanel extends ThemedPanel implements IDisposable {
 		if (result != null) {
 			if (result.success()) {
 				ChunkPrediction prediction = result.getBestPrediction();
+				discardedProbability = result.getDiscardedProbability();
 				setChunkPrediction(prediction);
 				if (chunkPredictionSubscription != null)
 					chunkPredictionSubscription.cancel();
@@ -84,7 +88,10 @@ class BasicTriangulationPanel extends ThemedPanel implements IDisposable {
 	private void setChunkPrediction(ChunkPrediction prediction) {
 		maintextLabel.setText(prediction.format(preferences.strongholdDisplayType.get()));
 		certaintyPanel.setText(CERTAINTY_TEXT);
-		certaintyPanel.setColoredText(String.format(Locale.US, "%.1f%%", prediction.chunk.weight * 100.0), (float) prediction.chunk.weight);
+		String certainty = String.format(Locale.US, "%.1f%%", prediction.chunk.weight * 100.0);
+		if (discardedProbability >= MIN_DISPLAYED_DISCARDED_PROBABILITY)
+			certainty += " " + I18n.get("discarded_probability", discardedProbability * 100.0);
+		certaintyPanel.setColoredText(certainty, (float) prediction.chunk.weight);
 		netherLabel.setText(I18n.get("nether_coordinates", prediction.chunk.x * 2, prediction.chunk.z * 2, prediction.getNetherDistance()));
 		currentAngleLabel.setText(prediction.formatTravelAngle(true));
 		currentAngleLabel.setColoredText(prediction.formatTravelAngleDiff(), prediction.getTravelAngleDiffColor());
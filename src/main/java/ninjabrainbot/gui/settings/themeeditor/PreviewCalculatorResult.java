@@ -49,4 +49,9 @@ public class PreviewCalculatorResult implements ICalculatorResult {
 		return true;
 	}
 
+	@Override
+	public double getDiscardedProbability() {
+		return 0;
+	}
+
 }
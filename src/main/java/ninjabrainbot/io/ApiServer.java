@@ -0,0 +1,353 @@
+package ninjabrainbot.io;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import org.json.JSONArray;
+import org.json.JSONObject;
+
+import com.sun.net.httpserver.Headers;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import ninjabrainbot.data.IDataState;
+import ninjabrainbot.data.IDataStateHandler;
+import ninjabrainbot.data.blind.BlindCandidate;
+import ninjabrainbot.data.blind.BlindResult;
+import ninjabrainbot.data.calculator.ICalculatorResult;
+import ninjabrainbot.data.calculator.ResultType;
+import ninjabrainbot.data.divine.DivineCoord;
+import ninjabrainbot.data.divine.DivineResult;
+import ninjabrainbot.data.endereye.IThrow;
+import ninjabrainbot.data.stronghold.ChunkPrediction;
+import ninjabrainbot.event.IDisposable;
+import ninjabrainbot.event.Subscription;
+
+/**
+ * Serves the data state as JSON on a HTTP server that only listens on the
+ * loopback address, for browser source overlays and other local tools. GET
+ * STATE_PATH returns the latest state, and GET EVENTS_PATH is a stream of
+ * server-sent events that sends the state every time it is modified.
+ * <p>
+ * The state is serialized once per modification, on the thread that modified
+ * it, and every response and stream is sent the same encoded bytes, so the cost
+ * of a modification does not depend on the number of clients. A stream that is
+ * slower than the modifications skips to the latest state.
+ * <p>
+ * Browsers only let a web page read the responses if its origin is in the
+ * allowed origins, which are none by default, so that other pages that are open
+ * in the browser can not read the state. Requests are also rejected unless
+ * their Host header is the loopback address with the port of the server, so
+ * that a page on another domain that resolves to 127.0.0.1 (DNS rebinding)
+ * does not count as the same origin.
+ */
+public class ApiServer implements IDisposable {
+
+	static final String STATE_PATH = "/api/v1/state";
+	static final String EVENTS_PATH = "/api/v1/events";
+	// Comment lines that are sent when nothing has changed, so that closed
+	// connections are detected
+	private static final long HEARTBEAT_INTERVAL = 15000; // Milliseconds
+	private static final byte[] HEARTBEAT = ":\n\n".getBytes(StandardCharsets.UTF_8);
+	// Every event stream occupies a thread until it is closed
+	static final int MAX_EVENT_STREAMS = 16;
+
+	/**
+	 * A version of the state, encoded as a JSON response and as an event.
+	 */
+	private static class EncodedState {
+
+		final long version;
+		final byte[] json;
+		final byte[] event;
+
+		EncodedState(long version, String json) {
+			this.version = version;
+			this.json = json.getBytes(StandardCharsets.UTF_8);
+			this.event = ("id: " + version + "\nevent: state\ndata: " + json + "\n\n").getBytes(StandardCharsets.UTF_8);
+		}
+
+	}
+
+	private final Object lock = new Object();
+	private EncodedState state;
+	private boolean disposed;
+	private int numEventStreams; // Guarded by lock
+
+	private final Set<String> allowedOrigins;
+	private final HttpServer server;
+	private final ExecutorService executor;
+	private final Subscription subscription;
+
+	/**
+	 * Starts a server on the given port of the loopback address, or on any free
+	 * port if the port is 0, that no web page origins are allowed to read.
+	 */
+	public ApiServer(IDataStateHandler dataStateHandler, int port) throws IOException {
+		this(dataStateHandler, port, "");
+	}
+
+	/**
+	 * Starts a server on the given port of the loopback address, or on any free
+	 * port if the port is 0. The allowed origins are separated by commas or
+	 * whitespace, for example "null" for pages that are loaded from local files.
+	 */
+	public ApiServer(IDataStateHandler dataStateHandler, int port, String allowedOrigins) throws IOException {
+		this.allowedOrigins = new HashSet<String>(Arrays.asList(allowedOrigins.trim().split("[,\\s]+")));
+		this.allowedOrigins.remove("");
+		subscription = dataStateHandler.whenDataStateModified().subscribe(dataState -> publish(dataState));
+		publish(dataStateHandler.getDataState());
+		server = HttpServer.create(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 0);
+		// Every event stream occupies a thread, the number of streams is limited by
+		// MAX_EVENT_STREAMS
+		executor = Executors.newCachedThreadPool(runnable -> {
+			Thread thread = new Thread(runnable, "API server");
+			thread.setDaemon(true);
+			return thread;
+		});
+		server.setExecutor(executor);
+		server.createContext(STATE_PATH, exchange -> handleState(exchange));
+		server.createContext(EVENTS_PATH, exchange -> handleEvents(exchange));
+		server.start();
+	}
+
+	public int getPort() {
+		return server.getAddress().getPort();
+	}
+
+	private void publish(IDataState dataState) {
+		String json = toJson(dataState).toString();
+		synchronized (lock) {
+			state = new EncodedState(state == null ? 1 : state.version + 1, json);
+			lock.notifyAll();
+		}
+	}
+
+	private EncodedState getState() {
+		synchronized (lock) {
+			return state;
+		}
+	}
+
+	private void handleState(HttpExchange exchange) throws IOException {
+		try {
+			if (!isGet(exchange))
+				return;
+			EncodedState encodedState = getState();
+			String etag = "\"" + encodedState.version + "\"";
+			Headers headers = exchange.getResponseHeaders();
+			headers.set("Content-Type", "application/json; charset=utf-8");
+			headers.set("Cache-Control", "no-cache");
+			headers.set("ETag", etag);
+			if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+				exchange.sendResponseHeaders(304, -1);
+				return;
+			}
+			exchange.sendResponseHeaders(200, encodedState.json.length);
+			exchange.getResponseBody().write(encodedState.json);
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private void handleEvents(HttpExchange exchange) throws IOException {
+		try {
+			if (!isGet(exchange))
+				return;
+			boolean full;
+			synchronized (lock) {
+				full = numEventStreams >= MAX_EVENT_STREAMS;
+				if (!full)
+					numEventStreams++;
+			}
+			if (full) {
+				exchange.sendResponseHeaders(503, -1);
+				return;
+			}
+			try {
+				streamEvents(exchange);
+			} finally {
+				synchronized (lock) {
+					numEventStreams--;
+				}
+			}
+		} finally {
+			exchange.close();
+		}
+	}
+
+	private void streamEvents(HttpExchange exchange) {
+		try {
+			Headers headers = exchange.getResponseHeaders();
+			headers.set("Content-Type", "text/event-stream; charset=utf-8");
+			headers.set("Cache-Control", "no-cache");
+			exchange.sendResponseHeaders(200, 0);
+			OutputStream out = exchange.getResponseBody();
+			long sentVersion = 0;
+			while (true) {
+				EncodedState encodedState;
+				synchronized (lock) {
+					long deadline = System.currentTimeMillis() + HEARTBEAT_INTERVAL;
+					long remaining;
+					while (!disposed && state.version == sentVersion && (remaining = deadline - System.currentTimeMillis()) > 0) {
+						lock.wait(remaining);
+					}
+					if (disposed)
+						return;
+					encodedState = state;
+				}
+				if (encodedState.version != sentVersion) {
+					out.write(encodedState.event);
+					sentVersion = encodedState.version;
+				} else {
+					out.write(HEARTBEAT);
+				}
+				out.flush();
+			}
+		} catch (IOException | InterruptedException e) {
+			// The client has disconnected, or the server is stopping
+		}
+	}
+
+	/**
+	 * Returns true if the request is a GET request to the loopback address,
+	 * otherwise responds with 403 or 405.
+	 */
+	private boolean isGet(HttpExchange exchange) throws IOException {
+		if (!isLoopbackHost(exchange.getRequestHeaders().getFirst("Host"))) {
+			exchange.sendResponseHeaders(403, -1);
+			return false;
+		}
+		String origin = exchange.getRequestHeaders().getFirst("Origin");
+		exchange.getResponseHeaders().set("Vary", "Origin");
+		if (origin != null && allowedOrigins.contains(origin))
+			exchange.getResponseHeaders().set("Access-Control-Allow-Origin", origin);
+		if ("GET".equals(exchange.getRequestMethod()))
+			return true;
+		exchange.getResponseHeaders().set("Allow", "GET");
+		exchange.sendResponseHeaders(405, -1);
+		return false;
+	}
+
+	private boolean isLoopbackHost(String host) {
+		if (host == null)
+			return false;
+		host = host.toLowerCase();
+		String port = ":" + getPort();
+		for (String name : new String[] { "127.0.0.1", "localhost", "[::1]" }) {
+			if (host.equals(name + port))
+				return true;
+		}
+		return false;
+	}
+
+	static JSONObject toJson(IDataState dataState) {
+		JSONObject json = new JSONObject();
+		ResultType resultType = dataState.resultType().get();
+		json.put("resultType", resultType != null ? resultType.name() : ResultType.NONE.name());
+		json.put("locked", Boolean.TRUE.equals(dataState.locked().get()));
+
+		JSONArray eyeThrows = new JSONArray();
+		for (IThrow t : dataState.getThrowSet()) {
+			JSONObject throwJson = new JSONObject();
+			throwJson.put("x", number(t.x()));
+			throwJson.put("z", number(t.z()));
+			throwJson.put("angle", number(t.alpha()));
+			throwJson.put("correction", number(t.correction()));
+			throwJson.put("std", number(t.getStd()));
+			eyeThrows.put(throwJson);
+		}
+		json.put("throws", eyeThrows);
+
+		JSONArray predictions = new JSONArray();
+		ICalculatorResult calculatorResult = dataState.calculatorResult().get();
+		if (calculatorResult != null && calculatorResult.success()) {
+			for (ChunkPrediction prediction : calculatorResult.getTopPredictions()) {
+				JSONObject predictionJson = new JSONObject();
+				predictionJson.put("chunkX", prediction.chunk.x);
+				predictionJson.put("chunkZ", prediction.chunk.z);
+				predictionJson.put("certainty", number(prediction.chunk.weight));
+				predictionJson.put("overworldDistance", prediction.getOverworldDistance());
+				predictionJson.put("travelAngle", number(prediction.getTravelAngle()));
+				predictionJson.put("travelAngleDiff", number(prediction.getTravelAngleDiff()));
+				predictions.put(predictionJson);
+			}
+			json.put("discardedProbability", number(calculatorResult.getDiscardedProbability()));
+		}
+		json.put("predictions", predictions);
+
+		BlindResult blindResult = dataState.blindResult().get();
+		if (blindResult != null) {
+			JSONObject blindJson = new JSONObject();
+			blindJson.put("x", number(blindResult.x));
+			blindJson.put("z", number(blindResult.z));
+			blindJson.put("evaluation", blindResult.evaluation().snd);
+			blindJson.put("highrollProbability", number(blindResult.highrollProbability));
+			blindJson.put("highrollThreshold", number(blindResult.highrollThreshold));
+			blindJson.put("averageDistance", number(blindResult.avgDistance));
+			blindJson.put("improveDirection", number(blindResult.improveDirection));
+			blindJson.put("improveDistance", number(blindResult.improveDistance));
+			JSONArray candidates = new JSONArray();
+			for (BlindCandidate candidate : blindResult.candidates) {
+				JSONObject candidateJson = new JSONObject();
+				candidateJson.put("x", number(candidate.x));
+				candidateJson.put("z", number(candidate.z));
+				candidateJson.put("highrollProbability", number(candidate.highrollProbability));
+				candidateJson.put("travelDistance", number(candidate.travelDistance));
+				candidateJson.put("averageDistance", number(candidate.avgDistance));
+				candidates.put(candidateJson);
+			}
+			blindJson.put("candidates", candidates);
+			json.put("blindResult", blindJson);
+		} else {
+			json.put("blindResult", JSONObject.NULL);
+		}
+
+		DivineResult divineResult = dataState.divineResult().get();
+		if (divineResult != null) {
+			JSONObject divineJson = new JSONObject();
+			divineJson.put("fossilX", divineResult.fossil.x);
+			divineJson.put("safe", toJson(divineResult.safe));
+			divineJson.put("highroll", toJson(divineResult.highroll));
+			json.put("divineResult", divineJson);
+		} else {
+			json.put("divineResult", JSONObject.NULL);
+		}
+		return json;
+	}
+
+	private static JSONArray toJson(DivineCoord[] coords) {
+		JSONArray json = new JSONArray();
+		for (DivineCoord coord : coords) {
+			json.put(new JSONObject().put("x", coord.x).put("z", coord.z));
+		}
+		return json;
+	}
+
+	/**
+	 * JSON has no NaN or infinity.
+	 */
+	private static Object number(double d) {
+		return Double.isFinite(d) ? (Object) d : JSONObject.NULL;
+	}
+
+	@Override
+	public void dispose() {
+		subscription.cancel();
+		synchronized (lock) {
+			disposed = true;
+			lock.notifyAll();
+		}
+		server.stop(0);
+		executor.shutdownNow();
+	}
+
+}
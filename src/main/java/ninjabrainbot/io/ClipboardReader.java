@@ -3,42 +3,88 @@ package ninjabrainbot.io;
 import java.awt.Toolkit;
 import java.awt.datatransfer.Clipboard;
 import java.awt.datatransfer.DataFlavor;
-import java.util.concurrent.atomic.AtomicBoolean;
+import java.awt.datatransfer.FlavorListener;
 
 import ninjabrainbot.data.datalock.IModificationLock;
 import ninjabrainbot.data.divine.Fossil;
 import ninjabrainbot.data.endereye.IThrow;
-import ninjabrainbot.data.endereye.Throw;
-import ninjabrainbot.data.endereye.Throw1_12;
 import ninjabrainbot.event.ISubscribable;
 import ninjabrainbot.event.ObservableProperty;
 import ninjabrainbot.io.preferences.NinjabrainBotPreferences;
+import ninjabrainbot.util.LatencyCounter;
+import ninjabrainbot.util.Logger;
 
+/**
+ * Reads throws and fossils from the clipboard. The clipboard is polled with an
+ * adaptive interval: right after a hint that it is about to change, i.e. when
+ * F3+C is pressed (see forceRead()) or when the flavors of the clipboard change,
+ * the interval is MIN_POLL_INTERVAL, and it doubles with every poll that finds
+ * no change, up to MAX_POLL_INTERVAL. Without the keyboard listener there are
+ * no F3+C hints, so the interval is capped at MAX_POLL_INTERVAL_WITHOUT_HINTS
+ * instead. With the alternative clipboard reader, the clipboard is only read
+ * for ALT_READ_DURATION after F3+C is pressed.
+ */
 public class ClipboardReader implements Runnable {
 
+	static final long MIN_POLL_INTERVAL = 5; // Milliseconds
+	static final long MAX_POLL_INTERVAL = 500;
+	static final long MAX_POLL_INTERVAL_WITHOUT_HINTS = 100;
+	static final long ALT_READ_DURATION = 1000;
+
 	private NinjabrainBotPreferences preferences;
 
 	Clipboard clipboard;
 	String lastClipboardString;
 
-	private AtomicBoolean forceReadLater;
+	private final long maxPollInterval;
+	private final Object lock = new Object();
+	private long pollInterval;
+	// Time of the latest hint that the clipboard is about to change, 0 if there
+	// has been no hint since the last change
+	private long hintTime;
+	private long altReadDeadline;
+	private final LatencyCounter latency = new LatencyCounter();
+	private final InputParser parser = new InputParser();
 
 	private IModificationLock modificationLock;
 	private ObservableProperty<IThrow> whenNewThrowInputed;
 	private ObservableProperty<Fossil> whenNewFossilInputed;
 
 	public ClipboardReader(NinjabrainBotPreferences preferences, IModificationLock modificationLock) {
+		this(preferences, modificationLock, Toolkit.getDefaultToolkit().getSystemClipboard(), KeyboardListener.registered ? MAX_POLL_INTERVAL : MAX_POLL_INTERVAL_WITHOUT_HINTS);
+	}
+
+	ClipboardReader(NinjabrainBotPreferences preferences, IModificationLock modificationLock, Clipboard clipboard, long maxPollInterval) {
 		this.preferences = preferences;
+		this.maxPollInterval = maxPollInterval;
+		pollInterval = maxPollInterval;
 		this.modificationLock = modificationLock;
-		clipboard = Toolkit.getDefaultToolkit().getSystemClipboard();
+		this.clipboard = clipboard;
 		lastClipboardString = "";
-		forceReadLater = new AtomicBoolean(false);
 		whenNewThrowInputed = new ObservableProperty<IThrow>();
 		whenNewFossilInputed = new ObservableProperty<Fossil>();
+		// Only notifies when the flavors change, e.g. from an image to text, so
+		// polling is still needed for text that replaces text
+		FlavorListener flavorListener = __ -> hint();
+		clipboard.addFlavorListener(flavorListener);
 	}
 
+	/**
+	 * Hints that the clipboard is about to change, because F3+C has been pressed.
+	 */
 	public void forceRead() {
-		forceReadLater.set(true);
+		synchronized (lock) {
+			altReadDeadline = System.nanoTime() + ALT_READ_DURATION * 1000000;
+		}
+		hint();
+	}
+
+	private void hint() {
+		synchronized (lock) {
+			hintTime = System.nanoTime();
+			pollInterval = MIN_POLL_INTERVAL;
+			lock.notifyAll();
+		}
 	}
 
 	public ISubscribable<IThrow> whenNewThrowInputed() {
@@ -49,54 +95,96 @@ public class ClipboardReader implements Runnable {
 		return whenNewFossilInputed;
 	}
 
+	/**
+	 * Returns the latency from a change of the clipboard to the new throw or
+	 * fossil being inputted. The time of the change is estimated by the latest
+	 * hint, or by the previous poll if there was no hint, so the latency is an
+	 * upper bound.
+	 */
+	public LatencyCounter getLatency() {
+		return latency;
+	}
+
 	@Override
 	public void run() {
-		while (true) {
-			boolean read = !preferences.altClipboardReader.get();
-			if (preferences.altClipboardReader.get() && forceReadLater.get()) {
-				read = true;
-				// Sleep 0.1 seconds to let the game update the clipboard
-				try {
-					Thread.sleep(100);
-				} catch (InterruptedException e) {
-					e.printStackTrace();
-				}
-			}
-			if (read && clipboard.isDataFlavorAvailable(DataFlavor.stringFlavor)) {
+		long previousPollTime = System.nanoTime();
+		while (!Thread.currentThread().isInterrupted()) {
+			long pollTime = System.nanoTime();
+			boolean changed = false;
+			if (shouldRead(pollTime) && clipboard.isDataFlavorAvailable(DataFlavor.stringFlavor)) {
 				String clipboardString = null;
 				try {
 					clipboardString = (String) clipboard.getData(DataFlavor.stringFlavor);
 				} catch (Exception e) {
 				}
 				if (clipboardString != null && !lastClipboardString.equals(clipboardString)) {
-					onClipboardUpdated(clipboardString);
 					lastClipboardString = clipboardString;
+					changed = true;
+					long changeTime;
+					synchronized (lock) {
+						changeTime = hintTime != 0 ? hintTime : previousPollTime;
+						hintTime = 0;
+						altReadDeadline = 0;
+					}
+					onClipboardUpdated(clipboardString, changeTime);
 				}
 			}
-			// Sleep 0.1 seconds
+			previousPollTime = pollTime;
 			try {
-				Thread.sleep(100);
+				waitForNextPoll(changed);
 			} catch (InterruptedException e) {
-				e.printStackTrace();
+				return;
 			}
 		}
 	}
 
-	private void onClipboardUpdated(String clipboard) {
-		final IThrow t = Throw.parseF3C(clipboard, preferences.crosshairCorrection.get(), modificationLock);
-		if (t != null) {
-			whenNewThrowInputed.notifySubscribers(t);
-			return;
+	private boolean shouldRead(long time) {
+		if (!preferences.altClipboardReader.get())
+			return true;
+		synchronized (lock) {
+			return time < altReadDeadline;
 		}
-		final IThrow t2 = Throw1_12.parseF3C(clipboard, preferences.crosshairCorrection.get(), modificationLock);
-		if (t2 != null) {
-			whenNewThrowInputed.notifySubscribers(t);
-			return;
+	}
+
+	/**
+	 * Waits for the current poll interval, or until there is a hint, and doubles
+	 * the interval if the clipboard did not change.
+	 */
+	private void waitForNextPoll(boolean changed) throws InterruptedException {
+		synchronized (lock) {
+			long interval = changed ? MIN_POLL_INTERVAL : pollInterval;
+			long hintTimeBefore = hintTime;
+			long deadline = System.nanoTime() + interval * 1000000;
+			long remaining;
+			while (hintTime == hintTimeBefore && (remaining = deadline - System.nanoTime()) > 0) {
+				lock.wait(remaining / 1000000, (int) (remaining % 1000000));
+			}
+			if (hintTime == hintTimeBefore)
+				pollInterval = Math.min(2 * interval, maxPollInterval);
 		}
-		final Fossil f = Fossil.parseF3I(clipboard);
-		if (f != null) {
-			whenNewFossilInputed.notifySubscribers(f);
+	}
+
+	private void onClipboardUpdated(String clipboard, long changeTime) {
+		switch (parser.parse(clipboard)) {
+		case THROW:
+		case THROW_1_12:
+			recordLatency(changeTime);
+			whenNewThrowInputed.notifySubscribers(parser.createThrow(preferences.crosshairCorrection.get(), modificationLock));
+			break;
+		case FOSSIL:
+			recordLatency(changeTime);
+			whenNewFossilInputed.notifySubscribers(parser.createFossil());
+			break;
+		default:
+			break;
 		}
 	}
 
+	private void recordLatency(long changeTime) {
+		long nanos = System.nanoTime() - changeTime;
+		latency.record(nanos);
+		Logger.log("Time from clipboard change to input: " + nanos / 1e9f + " seconds (average " + (float) latency.getAverageMillis() + " ms, max " + (float) latency.getMaxMillis() + " ms over "
+				+ latency.getCount() + " inputs).");
+	}
+
 }
@@ -0,0 +1,312 @@
+package ninjabrainbot.io;
+
+import ninjabrainbot.data.datalock.IModificationLock;
+import ninjabrainbot.data.divine.Fossil;
+import ninjabrainbot.data.endereye.IThrow;
+import ninjabrainbot.data.endereye.Throw;
+
+/**
+ * Parses the strings that throws and fossils are inputted as: F3+C commands,
+ * manually written 1.12 x/z/angle strings, and F3+I commands. The kind of
+ * string is identified from its prefix, and the string is split into tokens and
+ * its numbers are parsed in a single pass without creating substrings. Numbers
+ * that are not plain decimals with at most MAX_FAST_DIGITS digits, such as
+ * numbers in scientific notation, fall back to Double.parseDouble, so the
+ * results are the same as splitting the string and parsing each token.
+ * <p>
+ * The values of the latest accepted string are kept in the parser until the
+ * next call to parse(), so the parser is not thread safe, and every thread
+ * needs its own instance.
+ */
+public class InputParser {
+
+	public enum Result {
+		THROW(true), THROW_1_12(true), FOSSIL(true),
+		// Rejections
+		UNKNOWN_COMMAND(false), WRONG_NUMBER_OF_TOKENS(false), INVALID_NUMBER(false), OUT_OF_RANGE(false);
+
+		public final boolean accepted;
+
+		private Result(boolean accepted) {
+			this.accepted = accepted;
+		}
+	}
+
+	private static final String OVERWORLD_PREFIX = "/execute in minecraft:overworld run tp @s";
+	private static final String NETHER_PREFIX = "/execute in minecraft:the_nether run tp @s";
+	private static final String FOSSIL_PREFIX = "/setblock ";
+	private static final int F3C_TOKENS = 11;
+	private static final int F3C_1_12_TOKENS = 3;
+	private static final int F3I_TOKENS = 5;
+	private static final int MAX_TOKENS = F3C_TOKENS;
+	// Decimals with at most this many digits are exact as a long and as a double
+	private static final int MAX_FAST_DIGITS = 15;
+	private static final double[] POWERS_OF_TEN = new double[MAX_FAST_DIGITS + 1];
+
+	static {
+		POWERS_OF_TEN[0] = 1;
+		for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+			POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+		}
+	}
+
+	private final int[] tokenStart = new int[MAX_TOKENS];
+	private final int[] tokenEnd = new int[MAX_TOKENS];
+	private int numTokens;
+	private double number;
+	private int integer;
+
+	private double x, z, alpha, beta;
+	private boolean nether;
+	private int fossilX;
+	private Result result;
+
+	/**
+	 * Parses the given string. If it is accepted, its values can be read with the
+	 * getters that apply to the returned kind of string.
+	 */
+	public Result parse(CharSequence s) {
+		if (startsWith(s, OVERWORLD_PREFIX) || startsWith(s, NETHER_PREFIX)) {
+			result = parseF3C(s);
+		} else if (startsWith(s, FOSSIL_PREFIX)) {
+			result = parseF3I(s);
+		} else {
+			result = parse1_12(s);
+		}
+		return result;
+	}
+
+	/**
+	 * /execute in minecraft:overworld run tp @s x y z alpha beta
+	 */
+	private Result parseF3C(CharSequence s) {
+		if (!tokenize(s, F3C_TOKENS))
+			return Result.WRONG_NUMBER_OF_TOKENS;
+		if (!parseDouble(s, 6))
+			return Result.INVALID_NUMBER;
+		double x = number;
+		if (!parseDouble(s, 8))
+			return Result.INVALID_NUMBER;
+		double z = number;
+		if (!parseDouble(s, 9))
+			return Result.INVALID_NUMBER;
+		double alpha = number;
+		if (!parseDouble(s, 10))
+			return Result.INVALID_NUMBER;
+		this.x = x;
+		this.z = z;
+		this.alpha = alpha;
+		this.beta = number;
+		this.nether = startsWith(s, NETHER_PREFIX);
+		return Result.THROW;
+	}
+
+	/**
+	 * x z alpha, where x and z are block coords
+	 */
+	private Result parse1_12(CharSequence s) {
+		if (!tokenize(s, F3C_1_12_TOKENS))
+			return s.length() > 0 && s.charAt(0) == '/' ? Result.UNKNOWN_COMMAND : Result.WRONG_NUMBER_OF_TOKENS;
+		if (!parseDouble(s, 0))
+			return Result.INVALID_NUMBER;
+		double x = number;
+		if (!parseDouble(s, 1))
+			return Result.INVALID_NUMBER;
+		double z = number;
+		if (!parseDouble(s, 2))
+			return Result.INVALID_NUMBER;
+		this.x = x;
+		this.z = z;
+		this.alpha = number;
+		this.beta = -31;
+		this.nether = false;
+		return Result.THROW_1_12;
+	}
+
+	/**
+	 * /setblock x y z block
+	 */
+	private Result parseF3I(CharSequence s) {
+		if (!tokenize(s, F3I_TOKENS))
+			return Result.WRONG_NUMBER_OF_TOKENS;
+		if (!parseInt(s, 1))
+			return Result.INVALID_NUMBER;
+		int x = integer;
+		if (!parseInt(s, 3))
+			return Result.INVALID_NUMBER;
+		int z = integer;
+		if (x < 0 || x >= 16 || z < 0 || z >= 16)
+			return Result.OUT_OF_RANGE;
+		fossilX = x;
+		return Result.FOSSIL;
+	}
+
+	/**
+	 * Finds the tokens that String.split(" ") would return, and returns true if
+	 * there are exactly expectedTokens of them.
+	 */
+	private boolean tokenize(CharSequence s, int expectedTokens) {
+		numTokens = 0;
+		int start = 0;
+		int length = s.length();
+		// Trailing empty tokens are not counted
+		while (length > 0 && s.charAt(length - 1) == ' ')
+			length--;
+		if (length == 0)
+			return s.length() == 0 && expectedTokens == 1;
+		for (int i = 0; i <= length; i++) {
+			if (i == length || s.charAt(i) == ' ') {
+				if (numTokens == expectedTokens)
+					return false;
+				tokenStart[numTokens] = start;
+				tokenEnd[numTokens] = i;
+				numTokens++;
+				start = i + 1;
+			}
+		}
+		return numTokens == expectedTokens;
+	}
+
+	/**
+	 * Parses the given token as a double, like Double.parseDouble, and stores it in
+	 * number. Returns false if it is not a number.
+	 */
+	private boolean parseDouble(CharSequence s, int token) {
+		int start = tokenStart[token];
+		int end = tokenEnd[token];
+		int i = start;
+		boolean negative = false;
+		if (i < end && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+			negative = s.charAt(i) == '-';
+			i++;
+		}
+		long mantissa = 0;
+		int digits = 0;
+		int fractionDigits = 0;
+		boolean point = false;
+		for (; i < end; i++) {
+			char c = s.charAt(i);
+			if (c >= '0' && c <= '9') {
+				if (++digits > MAX_FAST_DIGITS)
+					return parseDoubleSlow(s, start, end);
+				mantissa = 10 * mantissa + (c - '0');
+				if (point)
+					fractionDigits++;
+			} else if (c == '.' && !point) {
+				point = true;
+			} else {
+				return parseDoubleSlow(s, start, end);
+			}
+		}
+		if (digits == 0)
+			return parseDoubleSlow(s, start, end);
+		// Both operands are exact, so the quotient is correctly rounded
+		double value = mantissa / POWERS_OF_TEN[fractionDigits];
+		number = negative ? -value : value;
+		return true;
+	}
+
+	private boolean parseDoubleSlow(CharSequence s, int start, int end) {
+		try {
+			number = Double.parseDouble(s.subSequence(start, end).toString());
+			return true;
+		} catch (NumberFormatException e) {
+			return false;
+		}
+	}
+
+	/**
+	 * Parses the given token as an int, like Integer.parseInt, and stores it in
+	 * integer. Returns false if it is not an int.
+	 */
+	private boolean parseInt(CharSequence s, int token) {
+		int start = tokenStart[token];
+		int end = tokenEnd[token];
+		int i = start;
+		boolean negative = false;
+		if (i < end && (s.charAt(i) == '-' || s.charAt(i) == '+')) {
+			negative = s.charAt(i) == '-';
+			i++;
+		}
+		if (i == end)
+			return false;
+		long value = 0;
+		for (; i < end; i++) {
+			char c = s.charAt(i);
+			if (c > 127) {
+				// Integer.parseInt also accepts non-ASCII digits
+				try {
+					integer = Integer.parseInt(s.subSequence(start, end).toString());
+					return true;
+				} catch (NumberFormatException e) {
+					return false;
+				}
+			}
+			if (c < '0' || c > '9')
+				return false;
+			value = 10 * value + (c - '0');
+			if (value > (long) Integer.MAX_VALUE + 1)
+				return false;
+		}
+		if (!negative && value > Integer.MAX_VALUE)
+			return false;
+		integer = (int) (negative ? -value : value);
+		return true;
+	}
+
+	private static boolean startsWith(CharSequence s, String prefix) {
+		if (s.length() < prefix.length())
+			return false;
+		for (int i = 0; i < prefix.length(); i++) {
+			if (s.charAt(i) != prefix.charAt(i))
+				return false;
+		}
+		return true;
+	}
+
+	public double getX() {
+		return x;
+	}
+
+	public double getZ() {
+		return z;
+	}
+
+	public double getAlpha() {
+		return alpha;
+	}
+
+	public double getBeta() {
+		return beta;
+	}
+
+	public boolean isNether() {
+		return nether;
+	}
+
+	/**
+	 * Returns the x coord of the fossil within its chunk, 0-15.
+	 */
+	public int getFossilX() {
+		return fossilX;
+	}
+
+	/**
+	 * Creates the throw of the latest string, which has to have been parsed as
+	 * THROW or THROW_1_12.
+	 */
+	public IThrow createThrow(double crosshairCorrection, IModificationLock modificationLock) {
+		// Add 0.5 to manually written coords because block coords should be used
+		double offset = result == Result.THROW_1_12 ? 0.5 : 0;
+		return new Throw(x + offset, z + offset, alpha + crosshairCorrection, beta, nether, modificationLock);
+	}
+
+	/**
+	 * Creates the fossil of the latest string, which has to have been parsed as
+	 * FOSSIL.
+	 */
+	public Fossil createFossil() {
+		return new Fossil(fossilX);
+	}
+
+}
@@ -8,7 +8,6 @@ import com.github.kwhat.jnativehook.NativeHookException;
 import com.github.kwhat.jnativehook.keyboard.NativeKeyEvent;
 import com.github.kwhat.jnativehook.keyboard.NativeKeyListener;
 
-import ninjabrainbot.io.preferences.BooleanPreference;
 import ninjabrainbot.io.preferences.HotkeyPreference;
 
 public class KeyboardListener implements NativeKeyListener {
@@ -16,8 +15,6 @@ public class KeyboardListener implements NativeKeyListener {
 	public static boolean registered = false;
 	public static KeyboardListener instance;
 
-	private BooleanPreference useAltClipboardReader;
-
 	BiConsumer<Integer, Integer> consumer;
 	ClipboardReader clr;
 	boolean f3Held = false;
@@ -45,17 +42,16 @@ public class KeyboardListener implements NativeKeyListener {
 		});
 	}
 
-	public static void init(ClipboardReader clr, BooleanPreference useAltClipboardReader) {
+	public static void init(ClipboardReader clr) {
 		if (registered) {
-			instance = new KeyboardListener(clr, useAltClipboardReader);
+			instance = new KeyboardListener(clr);
 			GlobalScreen.addNativeKeyListener(instance);
 		}
 	}
 
-	KeyboardListener(ClipboardReader clr, BooleanPreference useAltClipboardReader) {
+	KeyboardListener(ClipboardReader clr) {
 		super();
 		this.clr = clr;
-		this.useAltClipboardReader = useAltClipboardReader;
 	}
 
 	public synchronized void setConsumer(BiConsumer<Integer, Integer> consumer) {
@@ -87,19 +83,18 @@ public class KeyboardListener implements NativeKeyListener {
 				h.execute(e);
 			}
 		}
-		// Alt clipboard reader
-		if (useAltClipboardReader.get()) {
-			if (e.getRawCode() == KeyEvent.VK_F3) {
-				f3Held = true;
-			} else if (f3Held && e.getRawCode() == KeyEvent.VK_C) {
-				clr.forceRead();
-			}
+		// The clipboard is about to change, which the alt clipboard reader needs to
+		// know, and which lets the normal clipboard reader poll faster
+		if (e.getRawCode() == KeyEvent.VK_F3) {
+			f3Held = true;
+		} else if (f3Held && (e.getRawCode() == KeyEvent.VK_C || e.getRawCode() == KeyEvent.VK_I)) {
+			clr.forceRead();
 		}
 	}
 
 	@Override
 	public void nativeKeyReleased(NativeKeyEvent e) {
-		if (useAltClipboardReader.get() && e.getRawCode() == KeyEvent.VK_F3) {
+		if (e.getRawCode() == KeyEvent.VK_F3) {
 			f3Held = false;
 		}
 	}
@@ -0,0 +1,251 @@
+package ninjabrainbot.io;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.concurrent.TimeUnit;
+
+import ninjabrainbot.data.datalock.IModificationLock;
+import ninjabrainbot.data.divine.Fossil;
+import ninjabrainbot.data.endereye.IThrow;
+import ninjabrainbot.event.ISubscribable;
+import ninjabrainbot.event.ObservableProperty;
+import ninjabrainbot.io.preferences.NinjabrainBotPreferences;
+import ninjabrainbot.util.Logger;
+
+/**
+ * Reads throws and fossils from the lines that are appended to a text file,
+ * e.g. a file that a mod writes F3+C and F3+I commands to, so that the
+ * clipboard is not needed. The directory of the file is watched with a
+ * WatchService, and new bytes are read from the previous end of the file. Lines
+ * are parsed like the clipboard, lines that were in the file before it was
+ * watched are ignored, and if the file shrinks it is read from the start again.
+ * Only lines that start with MARKER are inputted, after the standard log
+ * prefix (e.g. "[12:00:00] [Render thread/INFO]: ") has been removed, so that
+ * chat messages and other log lines are never taken for throws.
+ */
+public class LogFileReader implements Runnable {
+
+	// Maximum time between checks of the file and of the settings, in case the
+	// watch service misses a change (it polls on some platforms)
+	static final long POLL_INTERVAL = 500; // Milliseconds
+	static final long RETRY_INTERVAL = 5000;
+	private static final int MAX_LINE_LENGTH = 4096; // Bytes, longer lines are skipped
+	static final String MARKER = "[NinjabrainBot] ";
+
+	private NinjabrainBotPreferences preferences;
+
+	// The buffers are cast to Buffer when they are cleared or flipped, since
+	// ByteBuffer only overrides those methods from Java 9
+	private final ByteBuffer readBuffer = ByteBuffer.allocate(8192);
+	private final ByteBuffer lineBuffer = ByteBuffer.allocate(MAX_LINE_LENGTH);
+	private final CharBuffer charBuffer = CharBuffer.allocate(MAX_LINE_LENGTH);
+	private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder().onMalformedInput(CodingErrorAction.REPLACE).onUnmappableCharacter(CodingErrorAction.REPLACE);
+	private boolean lineTooLong;
+	private final InputParser parser = new InputParser();
+
+	private IModificationLock modificationLock;
+	private ObservableProperty<IThrow> whenNewThrowInputed;
+	private ObservableProperty<Fossil> whenNewFossilInputed;
+
+	public LogFileReader(NinjabrainBotPreferences preferences, IModificationLock modificationLock) {
+		this.preferences = preferences;
+		this.modificationLock = modificationLock;
+		whenNewThrowInputed = new ObservableProperty<IThrow>();
+		whenNewFossilInputed = new ObservableProperty<Fossil>();
+	}
+
+	public ISubscribable<IThrow> whenNewThrowInputed() {
+		return whenNewThrowInputed;
+	}
+
+	public ISubscribable<Fossil> whenNewFossilInputed() {
+		return whenNewFossilInputed;
+	}
+
+	@Override
+	public void run() {
+		try {
+			while (!Thread.currentThread().isInterrupted()) {
+				String path = getPath();
+				if (path.isEmpty()) {
+					Thread.sleep(POLL_INTERVAL);
+					continue;
+				}
+				try {
+					tail(Paths.get(path), path);
+				} catch (IOException | InvalidPathException e) {
+					Logger.log("Could not read log file " + path + ": " + e);
+					waitForPathChange(path, RETRY_INTERVAL);
+				}
+			}
+		} catch (InterruptedException e) {
+		}
+	}
+
+	/**
+	 * Returns the path of the file to read, or an empty string if no file should
+	 * be read.
+	 */
+	private String getPath() {
+		return preferences.useLogFile.get() ? preferences.logFilePath.get() : "";
+	}
+
+	private void waitForPathChange(String path, long timeout) throws InterruptedException {
+		long deadline = System.currentTimeMillis() + timeout;
+		while (getPath().equals(path) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(POLL_INTERVAL);
+		}
+	}
+
+	/**
+	 * Reads the lines that are appended to the file until the path in the
+	 * settings changes.
+	 */
+	private void tail(Path file, String path) throws IOException, InterruptedException {
+		Path directory = file.toAbsolutePath().getParent();
+		try (WatchService watchService = file.getFileSystem().newWatchService()) {
+			directory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE, StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+			long position = Files.exists(file) ? Files.size(file) : 0;
+			((Buffer) lineBuffer).clear();
+			lineTooLong = false;
+			while (getPath().equals(path)) {
+				position = readNewBytes(file, position);
+				WatchKey key = watchService.poll(POLL_INTERVAL, TimeUnit.MILLISECONDS);
+				if (key != null) {
+					// The events do not matter, any change is checked by reading the file
+					key.pollEvents();
+					if (!key.reset())
+						throw new IOException("The directory can no longer be watched.");
+				}
+			}
+		}
+	}
+
+	/**
+	 * Reads the bytes from the given position to the end of the file, and returns
+	 * the new end of the file.
+	 */
+	private long readNewBytes(Path file, long position) throws IOException {
+		if (!Files.exists(file)) {
+			((Buffer) lineBuffer).clear();
+			lineTooLong = false;
+			return 0;
+		}
+		// The file is opened for every read so that it is not kept open while the
+		// game rotates or deletes it
+		try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+			long size = channel.size();
+			if (size < position) {
+				// The file has been truncated or replaced
+				position = 0;
+				((Buffer) lineBuffer).clear();
+				lineTooLong = false;
+			}
+			while (position < size) {
+				((Buffer) readBuffer).clear();
+				int n = channel.read(readBuffer, position);
+				if (n <= 0)
+					break;
+				position += n;
+				((Buffer) readBuffer).flip();
+				onBytesRead(readBuffer);
+			}
+		}
+		return position;
+	}
+
+	private void onBytesRead(ByteBuffer bytes) {
+		while (bytes.hasRemaining()) {
+			byte b = bytes.get();
+			if (b == '\n') {
+				if (!lineTooLong)
+					onLineRead();
+				((Buffer) lineBuffer).clear();
+				lineTooLong = false;
+			} else if (lineBuffer.hasRemaining()) {
+				lineBuffer.put(b);
+			} else {
+				lineTooLong = true;
+			}
+		}
+	}
+
+	private void onLineRead() {
+		((Buffer) lineBuffer).flip();
+		if (lineBuffer.hasRemaining() && lineBuffer.get(lineBuffer.limit() - 1) == '\r')
+			((Buffer) lineBuffer).limit(lineBuffer.limit() - 1);
+		((Buffer) charBuffer).clear();
+		decoder.reset();
+		decoder.decode(lineBuffer, charBuffer, true);
+		decoder.flush(charBuffer);
+		((Buffer) charBuffer).flip();
+		skipLogPrefix(charBuffer);
+		if (!skipMarker(charBuffer))
+			return;
+		switch (parser.parse(charBuffer)) {
+		case THROW:
+		case THROW_1_12:
+			whenNewThrowInputed.notifySubscribers(parser.createThrow(preferences.crosshairCorrection.get(), modificationLock));
+			break;
+		case FOSSIL:
+			whenNewFossilInputed.notifySubscribers(parser.createFossil());
+			break;
+		default:
+			break;
+		}
+	}
+
+	/**
+	 * Moves the position of the line past the "[hh:mm:ss] [thread/LEVEL]: " prefix
+	 * of the game log, if it has one.
+	 */
+	private static void skipLogPrefix(CharBuffer line) {
+		int i = line.position();
+		int end = line.limit();
+		if (i + 11 > end || line.get(i) != '[' || line.get(i + 9) != ']' || line.get(i + 10) != ' ')
+			return;
+		for (int j = 1; j < 9; j++) {
+			char c = line.get(i + j);
+			if (j % 3 == 0 ? c != ':' : (c < '0' || c > '9'))
+				return;
+		}
+		i += 11;
+		if (i >= end || line.get(i) != '[')
+			return;
+		while (i < end && line.get(i) != ']')
+			i++;
+		if (i + 2 < end && line.get(i + 1) == ':' && line.get(i + 2) == ' ')
+			((Buffer) line).position(i + 3);
+	}
+
+	/**
+	 * Moves the position of the line past MARKER, and returns false if the line
+	 * does not start with it.
+	 */
+	private static boolean skipMarker(CharBuffer line) {
+		if (line.remaining() < MARKER.length())
+			return false;
+		int position = line.position();
+		for (int i = 0; i < MARKER.length(); i++) {
+			if (line.get(position + i) != MARKER.charAt(i))
+				return false;
+		}
+		((Buffer) line).position(position + MARKER.length());
+		return true;
+	}
+
+}
@@ -1,10 +1,9 @@
 package ninjabrainbot.io;
 
+import java.awt.Graphics2D;
 import java.awt.image.BufferedImage;
 import java.io.File;
-import java.io.IOException;
 
-import javax.imageio.ImageIO;
 import javax.swing.Timer;
 
 import ninjabrainbot.data.IDataStateHandler;
@@ -25,7 +24,8 @@ public class OBSOverlay implements IDisposable {
 	private long lastOverlayUpdate = System.currentTimeMillis();
 	private final long minOverlayUpdateDelayMillis = 1000;
 
-	public static final File OBS_OVERLAY = new File(System.getProperty("java.io.tmpdir"), "nb-overlay.png");;
+	public static final File OBS_OVERLAY = new File(System.getProperty("java.io.tmpdir"), "nb-overlay.png");
+	private final OverlayImageWriter overlayImageWriter = new OverlayImageWriter(OBS_OVERLAY);
 
 	SubscriptionHandler sh = new SubscriptionHandler();
 
@@ -71,8 +71,8 @@ public class OBSOverlay implements IDisposable {
 
 	private void clear() {
 		if (preferences.useOverlay.get()) {
-			BufferedImage img = new BufferedImage(ninjabrainBotFrame.getWidth(), ninjabrainBotFrame.getHeight(), BufferedImage.TYPE_INT_ARGB);
-			write(img);
+			BufferedImage img = overlayImageWriter.acquire(ninjabrainBotFrame.getWidth(), ninjabrainBotFrame.getHeight());
+			overlayImageWriter.submit(img);
 			if (preferences.overlayAutoHide.get()) {
 				overlayClearTimer.stop();
 			}
@@ -86,13 +86,16 @@ public class OBSOverlay implements IDisposable {
 
 	private void drawAndWriteToFile() {
 		if (preferences.useOverlay.get()) {
-			BufferedImage img = new BufferedImage(ninjabrainBotFrame.getWidth(), ninjabrainBotFrame.getHeight(), BufferedImage.TYPE_INT_ARGB);
+			BufferedImage img = overlayImageWriter.acquire(ninjabrainBotFrame.getWidth(), ninjabrainBotFrame.getHeight());
 			boolean hideBecauseLocked = preferences.overlayHideWhenLocked.get() && calculatorLocked.get();
 			if (!ninjabrainBotFrame.isIdle() && !hideBecauseLocked) {
-				ninjabrainBotFrame.paint(img.createGraphics());
+				Graphics2D g = img.createGraphics();
+				ninjabrainBotFrame.paint(g);
+				g.dispose();
 				resetClearTimer();
 			}
-			write(img);
+			// Encoding and writing is done by the writer thread
+			overlayImageWriter.submit(img);
 		}
 	}
 
@@ -105,26 +108,21 @@ public class OBSOverlay implements IDisposable {
 		}
 	}
 
-	private void write(BufferedImage img) {
-		try {
-			ImageIO.write(img, "png", OBS_OVERLAY);
-		} catch (IOException e) {
-			e.printStackTrace();
-		}
-	}
-
 	private void setOverlayEnabled(boolean b) {
 		if (b) {
 			markShouldUpdate();
 		} else {
-			OBS_OVERLAY.delete();
+			overlayImageWriter.delete();
 		}
 	}
 
 	@Override
 	public void dispose() {
 		sh.dispose();
+		overlayClearTimer.stop();
+		overlayUpdateTimer.stop();
 		clear();
+		overlayImageWriter.dispose();
 	}
 
 }
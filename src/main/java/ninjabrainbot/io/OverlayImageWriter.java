@@ -0,0 +1,176 @@
+package ninjabrainbot.io;
+
+import java.awt.AlphaComposite;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferInt;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageOutputStream;
+
+import ninjabrainbot.util.Logger;
+
+/**
+ * Writes overlay images to a PNG file on a background thread, so that only the
+ * painting of the image is done by the caller. Images are taken from a small
+ * pool with acquire() and given back with submit(). An image is not written if
+ * its pixels are the same as the last written image, and it is written to a
+ * temporary file that is then moved to the file, so that the file is never read
+ * while it is half written.
+ */
+class OverlayImageWriter {
+
+	private static final int POOL_SIZE = 2;
+	// Low deflate level, the overlay is small and written often
+	private static final float COMPRESSION_QUALITY = 0.75f;
+
+	private final File file;
+	private final File tempFile;
+	private final ExecutorService executor;
+	private final ConcurrentLinkedQueue<BufferedImage> pool = new ConcurrentLinkedQueue<BufferedImage>();
+
+	// Only accessed by the writer thread
+	private final ImageWriter pngWriter;
+	private final ImageWriteParam writeParam;
+	private long lastHash;
+	private boolean hasWritten;
+
+	OverlayImageWriter(File file) {
+		this.file = file;
+		tempFile = new File(file.getPath() + ".tmp");
+		executor = Executors.newSingleThreadExecutor(runnable -> {
+			Thread thread = new Thread(runnable, "OBS overlay writer");
+			thread.setDaemon(true);
+			return thread;
+		});
+		pngWriter = ImageIO.getImageWritersByFormatName("png").next();
+		writeParam = pngWriter.getDefaultWriteParam();
+		// The PNG writer of Java 8 has no compression settings
+		if (writeParam.canWriteCompressed()) {
+			writeParam.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+			writeParam.setCompressionQuality(COMPRESSION_QUALITY);
+		}
+	}
+
+	/**
+	 * Returns a transparent image of the given size, which has to be given back
+	 * with submit().
+	 */
+	BufferedImage acquire(int width, int height) {
+		BufferedImage img = pool.poll();
+		if (img == null || img.getWidth() != width || img.getHeight() != height)
+			return new BufferedImage(width, height, BufferedImage.TYPE_INT_ARGB);
+		Graphics2D g = img.createGraphics();
+		g.setComposite(AlphaComposite.Clear);
+		g.fillRect(0, 0, width, height);
+		g.dispose();
+		return img;
+	}
+
+	/**
+	 * Writes the image to the file on the writer thread, and then returns it to
+	 * the pool.
+	 */
+	void submit(BufferedImage img) {
+		if (executor.isShutdown())
+			return;
+		executor.execute(() -> {
+			try {
+				write(img);
+			} catch (IOException e) {
+				Logger.log("Could not write the OBS overlay: " + e);
+				hasWritten = false;
+			} finally {
+				if (pool.size() < POOL_SIZE)
+					pool.add(img);
+			}
+		});
+	}
+
+	/**
+	 * Deletes the file on the writer thread, after the images that have been
+	 * submitted are written.
+	 */
+	void delete() {
+		if (executor.isShutdown())
+			return;
+		executor.execute(() -> {
+			file.delete();
+			hasWritten = false;
+		});
+	}
+
+	/**
+	 * Waits for the submitted images to be written, and stops the writer thread.
+	 */
+	void dispose() {
+		executor.shutdown();
+		try {
+			executor.awaitTermination(1, TimeUnit.SECONDS);
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Waits for the submitted images to be written.
+	 */
+	void flush() throws InterruptedException {
+		try {
+			executor.submit(() -> {
+			}).get();
+		} catch (ExecutionException e) {
+			throw new IllegalStateException(e);
+		}
+	}
+
+	private void write(BufferedImage img) throws IOException {
+		long hash = hash(img);
+		if (hasWritten && hash == lastHash && file.exists())
+			return;
+		// The stream overwrites the file from the start without truncating it
+		tempFile.delete();
+		try (ImageOutputStream out = ImageIO.createImageOutputStream(tempFile)) {
+			if (out == null)
+				throw new IOException("Could not create an output stream for " + tempFile);
+			pngWriter.setOutput(out);
+			pngWriter.write(null, new IIOImage(img, null, null), writeParam);
+		} finally {
+			pngWriter.setOutput(null);
+		}
+		try {
+			Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(tempFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		lastHash = hash;
+		hasWritten = true;
+	}
+
+	/**
+	 * 64-bit hash of the size and pixels of the image, so that a change that
+	 * collides with the previous image is very unlikely.
+	 */
+	static long hash(BufferedImage img) {
+		int[] pixels = ((DataBufferInt) img.getRaster().getDataBuffer()).getData();
+		long hash = 31L * img.getWidth() + img.getHeight();
+		for (int pixel : pixels) {
+			hash = (hash ^ pixel) * 0x9E3779B97F4A7C15L;
+		}
+		return hash ^ (hash >>> 29);
+	}
+
+}
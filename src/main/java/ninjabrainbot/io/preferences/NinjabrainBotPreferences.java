@@ -14,6 +14,7 @@ public class NinjabrainBotPreferences {
 	public IntPreference windowX;
 	public IntPreference windowY;
 	public IntPreference theme;
+	public IntPreference apiServerPort;
 	public HotkeyPreference hotkeyIncrement;
 	public HotkeyPreference hotkeyDecrement;
 	public HotkeyPreference hotkeyReset;
@@ -34,13 +35,18 @@ public class NinjabrainBotPreferences {
 	public BooleanPreference showAngleErrors;
 	public BooleanPreference autoReset;
 	public BooleanPreference useAdvStatistics;
+	public BooleanPreference discardNegligibleChunks;
 	public BooleanPreference altClipboardReader;
 	public BooleanPreference useAltStd;
 	public BooleanPreference useOverlay;
 	public BooleanPreference overlayAutoHide;
 	public BooleanPreference overlayHideWhenLocked;
+	public BooleanPreference useLogFile;
+	public BooleanPreference useApiServer;
 	public StringPreference customThemesString;
 	public StringPreference customThemesNames;
+	public StringPreference logFilePath;
+	public StringPreference apiServerAllowedOrigins;
 	public MultipleChoicePreference<SizeSetting> size;
 	public MultipleChoicePreference<StrongholdDisplayType> strongholdDisplayType;
 	public MultipleChoicePreference<MainViewType> view;
@@ -53,6 +59,7 @@ public class NinjabrainBotPreferences {
 		windowX = new IntPreference("window_x", 100, source);
 		windowY = new IntPreference("window_y", 100, source);
 		theme = new IntPreference("theme", 1, source);
+		apiServerPort = new IntPreference("api_server_port", 52533, source);
 		// Hotkey
 		hotkeyIncrement = new HotkeyPreference("hotkey_increment", source);
 		hotkeyDecrement = new HotkeyPreference("hotkey_decrement", source);
@@ -76,14 +83,19 @@ public class NinjabrainBotPreferences {
 		showAngleErrors = new BooleanPreference("show_angle_errors", false, source);
 		autoReset = new BooleanPreference("auto_reset", false, source);
 		useAdvStatistics = new BooleanPreference("use_adv_statistics", true, source);
+		discardNegligibleChunks = new BooleanPreference("discard_negligible_chunks", false, source);
 		altClipboardReader = new BooleanPreference("alt_clipboard_reader", false, source);
 		useAltStd = new BooleanPreference("use_alt_std", false, source);
 		useOverlay = new BooleanPreference("use_obs_overlay", false, source);
 		overlayAutoHide = new BooleanPreference("overlay_auto_hide", false, source);
 		overlayHideWhenLocked = new BooleanPreference("overlay_lock_hide", false, source);
+		useLogFile = new BooleanPreference("use_log_file", false, source);
+		useApiServer = new BooleanPreference("use_api_server", false, source);
 		// String
 		customThemesString = new StringPreference("custom_themes", "", source);
 		customThemesNames = new StringPreference("custom_themes_names", "", source);
+		logFilePath = new StringPreference("log_file_path", "", source);
+		apiServerAllowedOrigins = new StringPreference("api_server_allowed_origins", "", source);
 		// Multiple choice
 		size = new MultipleChoicePreference<SizeSetting>("size", SizeSetting.SMALL, new int[] { 0, 1, 2 }, new SizeSetting[] { SizeSetting.SMALL, SizeSetting.MEDIUM, SizeSetting.LARGE }, source);
 		strongholdDisplayType = new MultipleChoicePreference<StrongholdDisplayType>("stronghold_display_type", StrongholdDisplayType.FOURFOUR, new int[] { 0, 1, 2 },
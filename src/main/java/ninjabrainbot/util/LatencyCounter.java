@@ -0,0 +1,35 @@
+package ninjabrainbot.util;
+
+/**
+ * Counts events together with their latency, and keeps the average and largest
+ * latency. Thread safe.
+ */
+public class LatencyCounter {
+
+	private int count;
+	private long totalNanos;
+	private long maxNanos;
+
+	public synchronized void record(long nanos) {
+		count++;
+		totalNanos += nanos;
+		maxNanos = Math.max(maxNanos, nanos);
+	}
+
+	public synchronized int getCount() {
+		return count;
+	}
+
+	/**
+	 * Returns the average latency in milliseconds, or 0 if nothing has been
+	 * recorded.
+	 */
+	public synchronized double getAverageMillis() {
+		return count == 0 ? 0 : totalNanos / 1e6 / count;
+	}
+
+	public synchronized double getMaxMillis() {
+		return maxNanos / 1e6;
+	}
+
+}
@@ -0,0 +1,105 @@
+package ninjabrainbot.util;
+
+import java.util.Arrays;
+
+/**
+ * Partial selection of the largest values in a primitive array, without
+ * sorting the whole array.
+ *
+ * Values are compared with Double.compare, so NaN is considered larger than
+ * any other value, and ties are broken by index (the lower index comes first).
+ * The selection is therefore fully deterministic.
+ */
+public class TopK {
+
+	/**
+	 * Returns the indices of the k largest of the first n values, in order of
+	 * decreasing value. Runs in O(n log k) using a bounded min-heap over indices.
+	 */
+	public static int[] largest(double[] values, int n, int k) {
+		k = Math.min(k, n);
+		if (k <= 0)
+			return new int[0];
+		// Min-heap of the k best indices seen so far, the worst one at the root
+		int[] heap = new int[k];
+		int heapSize = 0;
+		for (int i = 0; i < n; i++) {
+			if (heapSize < k) {
+				heap[heapSize] = i;
+				siftUp(values, heap, heapSize);
+				heapSize++;
+			} else if (ranksAbove(values, i, heap[0])) {
+				heap[0] = i;
+				siftDown(values, heap, 0, heapSize);
+			}
+		}
+		// Remove the worst index until the heap is empty, filling the result from the
+		// back
+		int[] result = new int[k];
+		while (heapSize > 0) {
+			result[heapSize - 1] = heap[0];
+			heapSize--;
+			heap[0] = heap[heapSize];
+			siftDown(values, heap, 0, heapSize);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns the indices of the smallest set of the first n values whose sum is
+	 * at least the given total, in order of decreasing value. The values are
+	 * assumed to be non-negative. If the sum of all values is less than the
+	 * total, the indices of all values are returned.
+	 */
+	public static int[] credibleSet(double[] values, int n, double total) {
+		if (total <= 0)
+			return new int[0];
+		int k = Math.min(n, 64);
+		while (true) {
+			int[] indices = largest(values, n, k);
+			double sum = 0;
+			for (int i = 0; i < indices.length; i++) {
+				sum += values[indices[i]];
+				if (sum >= total)
+					return Arrays.copyOf(indices, i + 1);
+			}
+			if (k == n)
+				return indices;
+			k = (int) Math.min(n, 4L * k);
+		}
+	}
+
+	private static boolean ranksAbove(double[] values, int a, int b) {
+		int c = Double.compare(values[a], values[b]);
+		return c > 0 || (c == 0 && a < b);
+	}
+
+	private static void siftUp(double[] values, int[] heap, int i) {
+		int index = heap[i];
+		while (i > 0) {
+			int parent = (i - 1) >>> 1;
+			if (!ranksAbove(values, heap[parent], index))
+				break;
+			heap[i] = heap[parent];
+			i = parent;
+		}
+		heap[i] = index;
+	}
+
+	private static void siftDown(double[] values, int[] heap, int i, int heapSize) {
+		int index = heap[i];
+		while (true) {
+			int child = 2 * i + 1;
+			if (child >= heapSize)
+				break;
+			if (child + 1 < heapSize && ranksAbove(values, heap[child], heap[child + 1]))
+				child++;
+			if (!ranksAbove(values, index, heap[child]))
+				break;
+			heap[i] = heap[child];
+			i = child;
+		}
+		heap[i] = index;
+	}
+
+}
@@ -0,0 +1,32 @@
+package ninjabrainbot.data.statistics;
+
+import ninjabrainbot.util.Logger;
+
+/**
+ * Selects the AngleKernel to use. This is the Java 17 version, which uses the
+ * Vector API if the jdk.incubator.vector module has been added at startup
+ * (--add-modules jdk.incubator.vector), and the scalar kernel otherwise.
+ */
+final class AngleKernels {
+
+	static final AngleKernel INSTANCE = create();
+
+	private AngleKernels() {
+	}
+
+	private static AngleKernel create() {
+		if (ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent()) {
+			try {
+				AngleKernel kernel = new VectorAngleKernel();
+				Logger.log("Using vector angle kernel with " + VectorAngleKernel.SPECIES.length() + " lanes.");
+				return kernel;
+			} catch (LinkageError e) {
+				Logger.log("Could not load vector angle kernel: " + e);
+			}
+		} else {
+			Logger.log("Using scalar angle kernel, start with --add-modules jdk.incubator.vector to use the vector angle kernel.");
+		}
+		return new ScalarAngleKernel();
+	}
+
+}
@@ -0,0 +1,82 @@
+package ninjabrainbot.data.statistics;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * AngleKernel that evaluates a vector of chunks at a time with the Vector API.
+ * The arctangent is approximated by reducing the argument to |t| <=
+ * tan(pi/8) and evaluating its Taylor polynomial up to degree 19, so the error
+ * of the angles is less than 1e-7 degrees. The last vector of a batch is
+ * masked, so the result for a chunk does not depend on its position in the
+ * batch.
+ */
+class VectorAngleKernel extends AngleKernel {
+
+	static final VectorSpecies<Double> SPECIES = DoubleVector.SPECIES_PREFERRED;
+
+	private static final double TAN_PI_8 = Math.sqrt(2) - 1;
+	// Coefficients of t, t^3, t^5, ... in the Taylor series of atan(t)
+	private static final double[] ATAN_COEFFICIENTS = new double[10];
+
+	static {
+		for (int j = 0; j < ATAN_COEFFICIENTS.length; j++) {
+			ATAN_COEFFICIENTS[j] = (j % 2 == 0 ? 1.0 : -1.0) / (2 * j + 1);
+		}
+	}
+
+	@Override
+	void angles(double[] dx, double[] dz, double[] gammas, int n) {
+		for (int k = 0; k < n; k += SPECIES.length()) {
+			VectorMask<Double> mask = SPECIES.indexInRange(k, n);
+			DoubleVector y = DoubleVector.fromArray(SPECIES, dx, k, mask);
+			DoubleVector x = DoubleVector.fromArray(SPECIES, dz, k, mask);
+			atan2(y, x).mul(-180 / Math.PI).intoArray(gammas, k, mask);
+		}
+	}
+
+	@Override
+	void logLikelihoods(double[] gammas, double alpha, double std, double[] logLikelihoods, int n) {
+		// With both angles in (-180, 180], the difference is wrapped by a single
+		// subtraction
+		double a = alpha % 360.0;
+		if (a > 180)
+			a -= 360;
+		else if (a <= -180)
+			a += 360;
+		double c = -1 / (2 * std * std);
+		for (int k = 0; k < n; k += SPECIES.length()) {
+			VectorMask<Double> mask = SPECIES.indexInRange(k, n);
+			DoubleVector delta = DoubleVector.fromArray(SPECIES, gammas, k, mask).sub(a).abs();
+			delta = delta.min(delta.neg().add(360.0));
+			delta.mul(delta).mul(c).intoArray(logLikelihoods, k, mask);
+		}
+	}
+
+	/**
+	 * Returns atan2(y, x) for each lane, in radians.
+	 */
+	static DoubleVector atan2(DoubleVector y, DoubleVector x) {
+		DoubleVector ay = y.abs();
+		DoubleVector ax = x.abs();
+		DoubleVector max = ay.max(ax);
+		DoubleVector min = ay.min(ax);
+		// atan2(0, 0) is 0
+		DoubleVector a = min.div(max.blend(1.0, max.eq(0.0)));
+		// atan(a) = pi/4 + atan((a - 1) / (a + 1))
+		VectorMask<Double> reduced = a.compare(VectorOperators.GT, TAN_PI_8);
+		DoubleVector t = a.blend(a.sub(1.0).div(a.add(1.0)), reduced);
+		DoubleVector t2 = t.mul(t);
+		DoubleVector p = DoubleVector.broadcast(SPECIES, ATAN_COEFFICIENTS[ATAN_COEFFICIENTS.length - 1]);
+		for (int j = ATAN_COEFFICIENTS.length - 2; j >= 0; j--) {
+			p = p.mul(t2).add(ATAN_COEFFICIENTS[j]);
+		}
+		DoubleVector r = p.mul(t).add(DoubleVector.zero(SPECIES).blend(Math.PI / 4, reduced));
+		r = r.blend(r.neg().add(Math.PI / 2), ay.compare(VectorOperators.GT, ax));
+		r = r.blend(r.neg().add(Math.PI), x.compare(VectorOperators.LT, 0.0));
+		return r.blend(r.neg(), y.compare(VectorOperators.LT, 0.0));
+	}
+
+}
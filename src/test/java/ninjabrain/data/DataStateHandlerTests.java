@@ -10,6 +10,7 @@ import org.junit.jupiter.api.Test;
 import ninjabrainbot.data.DataStateHandler;
 import ninjabrainbot.data.IDataState;
 import ninjabrainbot.data.blind.BlindResult;
+import ninjabrainbot.data.calculator.ICalculatorResult;
 import ninjabrainbot.data.calculator.ResultType;
 import ninjabrainbot.data.divine.Fossil;
 import ninjabrainbot.data.endereye.IThrow;
@@ -87,4 +88,76 @@ public class DataStateHandlerTests {
 		assertEquals(dataState.resultType().get(), ResultType.NONE);
 	}
 
+	@Test
+	void asyncTriangulationPublishesLatestResult() throws InterruptedException {
+		ObservableProperty<IThrow> throwStream = new ObservableProperty<IThrow>();
+		DataStateHandler dataStateHandler = new DataStateHandler(preferences, true);
+		dataStateHandler.addThrowStream(throwStream);
+		IDataState dataState = dataStateHandler.getDataState();
+
+		ObservableProperty<IThrow> syncThrowStream = new ObservableProperty<IThrow>();
+		DataStateHandler syncDataStateHandler = new DataStateHandler(preferences);
+		syncDataStateHandler.addThrowStream(syncThrowStream);
+		IDataState syncDataState = syncDataStateHandler.getDataState();
+
+		throwStream.notifySubscribers(TestUtils.createThrow(2000, 1000, -45));
+		throwStream.notifySubscribers(TestUtils.createThrow(2100, 1100, -45.5));
+		syncThrowStream.notifySubscribers(TestUtils.createThrow(2000, 1000, -45));
+		syncThrowStream.notifySubscribers(TestUtils.createThrow(2100, 1100, -45.5));
+		double expectedDistance = syncDataState.calculatorResult().get().getBestPrediction().getOverworldDistance();
+
+		long deadline = System.currentTimeMillis() + 30000;
+		while (!hasResultWithDistance(dataStateHandler, expectedDistance) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		synchronized (dataStateHandler) {
+			assertEquals(dataState.resultType().get(), ResultType.TRIANGULATION);
+			assertEquals(dataState.calculatorResult().get().getBestPrediction().getOverworldDistance(), expectedDistance);
+		}
+
+		dataStateHandler.reset();
+		assertEquals(dataState.resultType().get(), ResultType.NONE);
+		dataStateHandler.dispose();
+	}
+
+	@Test
+	void asyncBlindSearchPublishesCandidatesLater() throws InterruptedException {
+		ObservableProperty<IThrow> throwStream = new ObservableProperty<IThrow>();
+		DataStateHandler dataStateHandler = new DataStateHandler(preferences, true);
+		dataStateHandler.addThrowStream(throwStream);
+		IDataState dataState = dataStateHandler.getDataState();
+
+		throwStream.notifySubscribers(TestUtils.createThrowNether(213, 142, -45));
+		synchronized (dataStateHandler) {
+			// The features are published right away, and the candidates when they have
+			// been searched for
+			assertEquals(dataState.resultType().get(), ResultType.BLIND);
+			assertEquals(dataState.blindResult().get().x, 213);
+		}
+
+		long deadline = System.currentTimeMillis() + 30000;
+		while (!hasBlindCandidates(dataStateHandler) && System.currentTimeMillis() < deadline) {
+			Thread.sleep(10);
+		}
+		synchronized (dataStateHandler) {
+			assertFalse(dataState.blindResult().get().candidates.isEmpty());
+			assertEquals(dataState.blindResult().get().x, 213);
+		}
+		dataStateHandler.dispose();
+	}
+
+	private boolean hasBlindCandidates(DataStateHandler dataStateHandler) {
+		synchronized (dataStateHandler) {
+			BlindResult result = dataStateHandler.getDataState().blindResult().get();
+			return result != null && !result.candidates.isEmpty();
+		}
+	}
+
+	private boolean hasResultWithDistance(DataStateHandler dataStateHandler, double distance) {
+		synchronized (dataStateHandler) {
+			ICalculatorResult result = dataStateHandler.getDataState().calculatorResult().get();
+			return result != null && result.success() && result.getBestPrediction().getOverworldDistance() == distance;
+		}
+	}
+
 }
@@ -0,0 +1,72 @@
+package ninjabrainbot.data.calculator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.List;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import ninjabrainbot.data.blind.BlindCandidate;
+import ninjabrainbot.data.divine.Fossil;
+import ninjabrainbot.data.statistics.PriorIndex;
+import ninjabrainbot.util.Coords;
+
+class BlindCoordinateSearchTests {
+
+	@ParameterizedTest
+	@CsvSource({ "0, 0, -1, 300", "150, -80, -1, 200", "-400, 900, -1, 300", "30, 60, 4, 300", "-220, -10, 11, 150" })
+	void bestCandidateIsAsGoodAsDenseGrid(double x, double z, int fossilX, double budget) {
+		Fossil fossil = fossilX == -1 ? null : new Fossil(fossilX);
+		PriorIndex priorIndex = PriorIndex.get(fossil, true);
+
+		List<BlindCandidate> candidates = new BlindCoordinateSearch(fossil, true, budget).search(x, z, 3);
+
+		double bestOnGrid = 0;
+		double spacing = 8;
+		for (double px = x - budget; px <= x + budget; px += spacing) {
+			for (double pz = z - budget; pz <= z + budget; pz += spacing) {
+				if (Coords.dist(x, z, px, pz) <= budget)
+					bestOnGrid = Math.max(bestOnGrid, BlindEvaluator.getHighrollProbability(priorIndex, px, pz, BlindEvaluator.DISTANCE_THRESHOLD));
+			}
+		}
+		assertTrue(candidates.get(0).highrollProbability >= bestOnGrid * (1 - BlindCoordinateSearch.TRAVEL_PENALTY) - 1e-3);
+	}
+
+	@ParameterizedTest
+	@CsvSource({ "0, 0, 300", "150, -80, 200", "-400, 900, 300", "700, 300, 150" })
+	void expectedDistanceIsAsLowAsDenseGrid(double x, double z, double budget) {
+		BlindDistanceEvaluator distanceEvaluator = new BlindDistanceEvaluator();
+
+		List<BlindCandidate> candidates = new BlindCoordinateSearch(null, true, budget, BlindObjective.EXPECTED_DISTANCE).search(x, z, 3);
+
+		double bestOnGrid = Double.POSITIVE_INFINITY;
+		double spacing = 8;
+		for (double px = x - budget; px <= x + budget; px += spacing) {
+			for (double pz = z - budget; pz <= z + budget; pz += spacing) {
+				double travelDistance = Coords.dist(x, z, px, pz);
+				if (travelDistance <= budget)
+					bestOnGrid = Math.min(bestOnGrid, travelDistance + distanceEvaluator.getAverageDistance(px, pz, 10, 20) * 16);
+			}
+		}
+		BlindCandidate best = candidates.get(0);
+		assertEquals(distanceEvaluator.getAverageDistance(best.x, best.z, 10, 20) * 16, best.avgDistance, 1e-9);
+		assertTrue(best.travelDistance + best.avgDistance <= bestOnGrid + 1);
+	}
+
+	@ParameterizedTest
+	@CsvSource({ "0, 0", "150, -80", "-400, 900", "3000, 0" })
+	void candidatesAreWithinBudget(double x, double z) {
+		double budget = 250;
+
+		List<BlindCandidate> candidates = new BlindCoordinateSearch(null, true, budget).search(x, z, 3);
+
+		assertTrue(candidates.size() >= 1 && candidates.size() <= 3);
+		for (BlindCandidate candidate : candidates) {
+			assertTrue(candidate.travelDistance <= budget);
+			assertEquals(Coords.dist(x, z, candidate.x, candidate.z), candidate.travelDistance, 1e-9);
+		}
+	}
+
+}
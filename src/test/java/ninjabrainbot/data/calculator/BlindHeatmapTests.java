@@ -0,0 +1,63 @@
+package ninjabrainbot.data.calculator;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import ninjabrainbot.data.datalock.AlwaysUnlocked;
+import ninjabrainbot.data.divine.DivineContext;
+import ninjabrainbot.io.preferences.MultipleChoicePreferenceDataTypes.McVersion;
+
+class BlindHeatmapTests {
+
+	static BlindHeatmap heatmap;
+
+	@BeforeAll
+	static void setup() {
+		heatmap = new BlindHeatmap(2);
+	}
+
+	@AfterAll
+	static void dispose() {
+		heatmap.dispose();
+	}
+
+	@ParameterizedTest
+	@CsvSource({ "240, 120", "-300, 40", "0, -352" })
+	void featuresAtGridPointsAreExact(double x, double z) throws InterruptedException {
+		double[] expected = new double[BlindEvaluator.NUM_FEATURES];
+		new BlindEvaluator(new DivineContext(new AlwaysUnlocked()), true).evaluate(x, z, expected, 0);
+
+		double[] features = interpolateWhenCached(x, z);
+
+		assertArrayEquals(expected, features);
+	}
+
+	@ParameterizedTest
+	@CsvSource({ "241.3, 118.9", "-301.7, 42.25", "1.5, -350.1", "150.2, -280.6" })
+	void interpolatedFeaturesAreCloseToExact(double x, double z) throws InterruptedException {
+		double[] expected = new double[BlindEvaluator.NUM_FEATURES];
+		new BlindEvaluator(new DivineContext(new AlwaysUnlocked()), true).evaluate(x, z, expected, 0);
+
+		double[] features = interpolateWhenCached(x, z);
+
+		assertEquals(expected[BlindEvaluator.HIGHROLL_PROBABILITY], features[BlindEvaluator.HIGHROLL_PROBABILITY], 0.002);
+		assertEquals(expected[BlindEvaluator.AVERAGE_DISTANCE], features[BlindEvaluator.AVERAGE_DISTANCE], expected[BlindEvaluator.AVERAGE_DISTANCE] * 0.001);
+	}
+
+	private double[] interpolateWhenCached(double x, double z) throws InterruptedException {
+		double[] features = new double[BlindEvaluator.NUM_FEATURES];
+		long t0 = System.currentTimeMillis();
+		while (!heatmap.interpolate(null, McVersion.PRE_119, true, x, z, features)) {
+			assertTrue(System.currentTimeMillis() - t0 < 30000, "Tile was not calculated within 30 seconds.");
+			Thread.sleep(10);
+		}
+		return features;
+	}
+
+}
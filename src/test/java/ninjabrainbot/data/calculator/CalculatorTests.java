@@ -0,0 +1,55 @@
+package ninjabrainbot.data.calculator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.function.Supplier;
+
+import org.junit.jupiter.api.Test;
+
+import ninjabrainbot.data.datalock.AlwaysUnlocked;
+import ninjabrainbot.data.divine.DivineContext;
+import ninjabrainbot.data.divine.Fossil;
+import ninjabrainbot.data.endereye.IThrow;
+import ninjabrainbot.data.endereye.StandardStdProfile;
+import ninjabrainbot.data.endereye.ThrowSet;
+import ninjabrainbot.data.statistics.ChunkGrid;
+import ninjabrainbot.data.statistics.Posterior;
+import ninjabrainbot.io.preferences.MultipleChoicePreferenceDataTypes.McVersion;
+import ninjabrainbot.io.preferences.NinjabrainBotPreferences;
+import ninjabrainbot.io.preferences.UnsavedPreferences;
+import ninjabrainbot.util.TestUtils;
+
+class CalculatorTests {
+
+	@Test
+	void posteriorTask_usesDivineContextAndSettingsFromWhenItWasCreated() {
+		CalculatorSettings settings = new CalculatorSettings();
+		settings.useAdvStatistics = false;
+		DivineContext divineContext = new DivineContext(new AlwaysUnlocked());
+		divineContext.setFossil(new Fossil(4));
+		Calculator calculator = new Calculator(settings);
+		calculator.setDivineContext(divineContext);
+		ThrowSet eyeThrows = new ThrowSet(new AlwaysUnlocked());
+		IThrow t = TestUtils.createThrow(1000, -1000, 45.12);
+		t.setStdProfile(new StandardStdProfile(new NinjabrainBotPreferences(new UnsavedPreferences())));
+		eyeThrows.add(t);
+
+		Supplier<Posterior> posteriorTask = calculator.getPosteriorTask(eyeThrows);
+		divineContext.setFossil(new Fossil(11));
+		settings.useAdvStatistics = true;
+		settings.version = McVersion.POST_119;
+		ChunkGrid chunks = posteriorTask.get().getChunks();
+
+		DivineContext expectedDivineContext = new DivineContext(new AlwaysUnlocked());
+		expectedDivineContext.setFossil(new Fossil(4));
+		CalculatorSettings expectedSettings = new CalculatorSettings();
+		ChunkGrid expected = new Posterior(eyeThrows, expectedDivineContext, false, expectedSettings.parallelAdvStatistics, expectedSettings.maxDiscardedProbability, McVersion.PRE_119).getChunks();
+		assertEquals(expected.size(), chunks.size());
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.x(i), chunks.x(i));
+			assertEquals(expected.z(i), chunks.z(i));
+			assertEquals(expected.weight(i), chunks.weight(i));
+		}
+	}
+
+}
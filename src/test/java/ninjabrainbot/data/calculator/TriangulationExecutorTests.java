@@ -0,0 +1,28 @@
+package ninjabrainbot.data.calculator;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+
+class TriangulationExecutorTests {
+
+	@Test
+	void failedTask_publishesFailure_andLaterTasksStillRun() throws InterruptedException {
+		BlockingQueue<String> published = new ArrayBlockingQueue<>(10);
+		TriangulationExecutor triangulationExecutor = new TriangulationExecutor(Runnable::run);
+
+		triangulationExecutor.submit(() -> {
+			throw new IllegalStateException("Test");
+		}, posterior -> published.add("finished"), () -> published.add("failed"));
+		assertEquals("failed", published.poll(5, TimeUnit.SECONDS));
+
+		triangulationExecutor.submit(() -> null, posterior -> published.add("finished"), () -> published.add("failed"));
+		assertEquals("finished", published.poll(5, TimeUnit.SECONDS));
+		triangulationExecutor.dispose();
+	}
+
+}
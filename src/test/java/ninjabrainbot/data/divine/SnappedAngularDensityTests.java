@@ -0,0 +1,40 @@
+package ninjabrainbot.data.divine;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import ninjabrainbot.data.datalock.AlwaysUnlocked;
+import ninjabrainbot.data.stronghold.StrongholdConstants;
+import ninjabrainbot.util.Coords;
+
+class SnappedAngularDensityTests {
+
+	@ParameterizedTest
+	@CsvSource({ "0, 0.5, 0.5", "3, 100.5, -20.5", "7, -150.5, 60.5", "11, 10.5, 179.5", "15, -0.5, -120.5", "4, 30, 40", "9, 12.25, -80.75", "2, 400.5, 0.5" })
+	void densityIsIdenticalToAverageOverSnappingNeighbourhood(int fossil, double cx, double cz) {
+		DivineContext divineContext = new DivineContext(new AlwaysUnlocked());
+		divineContext.setFossil(new Fossil(fossil));
+
+		int m = StrongholdConstants.snappingRadius;
+		double expected = 0;
+		for (int i = -m; i <= m; i++) {
+			for (int j = -m; j <= m; j++) {
+				expected += divineContext.getDensityAtAngleBeforeSnapping(Coords.getPhi(cx + i, cz + j));
+			}
+		}
+		expected /= (2 * m + 1) * (2 * m + 1);
+
+		assertEquals(expected, divineContext.getDensityAtChunkAfterSnapping(cx, cz), 1e-12 * expected);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 0, 5, 15 })
+	void tablesAreCachedPerFossil(int fossil) {
+		assertSame(SnappedAngularDensity.get(new Fossil(fossil)), SnappedAngularDensity.get(new Fossil(fossil)));
+	}
+
+}
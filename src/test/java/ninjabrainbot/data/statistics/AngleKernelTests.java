@@ -0,0 +1,126 @@
+package ninjabrainbot.data.statistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class AngleKernelTests {
+
+	private static final int N = 1000;
+
+	@ParameterizedTest
+	@ValueSource(strings = { "ScalarAngleKernel", "VectorAngleKernel" })
+	void angles_areCloseToScalarAngles(String className) {
+		AngleKernel kernel = load(className);
+		Random random = new Random(1);
+		double[] dx = new double[N];
+		double[] dz = new double[N];
+		for (int k = 0; k < N; k++) {
+			// Include the axes, the diagonals and the origin
+			int type = random.nextInt(8);
+			double a = type == 0 ? 0 : (random.nextInt(8000) - 4000) * 16 + 4 + random.nextDouble() * 1000;
+			double b = type == 1 ? 0 : type == 2 ? a : type == 3 ? -a : (random.nextInt(8000) - 4000) * 16 + 4 + random.nextDouble() * 1000;
+			dx[k] = random.nextBoolean() ? a : b;
+			dz[k] = dx[k] == a ? b : a;
+		}
+		double[] expected = new double[N];
+		double[] actual = new double[N];
+
+		new ScalarAngleKernel().angles(dx, dz, expected, N);
+		kernel.angles(dx, dz, actual, N);
+
+		for (int k = 0; k < N; k++) {
+			double difference = Math.abs(expected[k] - actual[k]) % 360.0;
+			difference = Math.min(difference, 360.0 - difference);
+			assertTrue(difference < 1e-7, "Angle to (" + dx[k] + ", " + dz[k] + ") is " + actual[k] + " instead of " + expected[k] + ".");
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "ScalarAngleKernel", "VectorAngleKernel" })
+	void logLikelihoods_areCloseToScalarLogLikelihoods(String className) {
+		AngleKernel kernel = load(className);
+		Random random = new Random(2);
+		double[] gammas = new double[N];
+		for (int k = 0; k < N; k++) {
+			gammas[k] = 180 - 360 * random.nextDouble();
+		}
+		double[] expected = new double[N];
+		double[] actual = new double[N];
+		for (double alpha : new double[] { -400.3, -180, -45.12, 0, 90.7, 180, 359.9 }) {
+			double std = 0.005 + random.nextDouble();
+
+			new ScalarAngleKernel().logLikelihoods(gammas, alpha, std, expected, N);
+			kernel.logLikelihoods(gammas, alpha, std, actual, N);
+
+			for (int k = 0; k < N; k++) {
+				assertEquals(expected[k], actual[k], 1e-9 * Math.max(1, Math.abs(expected[k])));
+			}
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "ScalarAngleKernel", "VectorAngleKernel" })
+	void results_doNotDependOnPositionInBatch(String className) {
+		AngleKernel kernel = load(className);
+		Random random = new Random(3);
+		int n = 37;
+		double[] dx = new double[n];
+		double[] dz = new double[n];
+		for (int k = 0; k < n; k++) {
+			dx[k] = random.nextGaussian() * 1000;
+			dz[k] = random.nextGaussian() * 1000;
+		}
+		double[] gammas = new double[n];
+		double[] logLikelihoods = new double[n];
+		kernel.angles(dx, dz, gammas, n);
+		kernel.logLikelihoods(gammas, 30, 0.1, logLikelihoods, n);
+
+		double[] gamma = new double[1];
+		double[] logLikelihood = new double[1];
+		for (int k = 0; k < n; k++) {
+			kernel.angles(new double[] { dx[k] }, new double[] { dz[k] }, gamma, 1);
+			kernel.logLikelihoods(gamma, 30, 0.1, logLikelihood, 1);
+			assertEquals(gammas[k], gamma[0]);
+			assertEquals(logLikelihoods[k], logLikelihood[0]);
+		}
+	}
+
+	@Test
+	void vectorKernel_isUsedWhenAvailable() {
+		boolean vectorApiAvailable;
+		try {
+			Class.forName("jdk.incubator.vector.DoubleVector");
+			vectorApiAvailable = true;
+		} catch (ClassNotFoundException e) {
+			vectorApiAvailable = false;
+		}
+		String expected = vectorApiAvailable ? "VectorAngleKernel" : "ScalarAngleKernel";
+		assertEquals(expected, AngleKernels.INSTANCE.getClass().getSimpleName());
+	}
+
+	/**
+	 * Loads the kernel with the given class name, the vector kernel is only
+	 * available when running on Java 17 or later with the
+	 * jdk.incubator.vector module.
+	 */
+	private static AngleKernel load(String className) {
+		AngleKernel kernel = null;
+		try {
+			kernel = (AngleKernel) Class.forName("ninjabrainbot.data.statistics." + className).getDeclaredConstructor().newInstance();
+		} catch (ClassNotFoundException | LinkageError e) {
+			// Not available
+		} catch (ReflectiveOperationException e) {
+			throw new RuntimeException(e);
+		}
+		assumeTrue(kernel != null, className + " is not available.");
+		return kernel;
+	}
+
+}
@@ -0,0 +1,77 @@
+package ninjabrainbot.data.statistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import ninjabrainbot.data.stronghold.Chunk;
+
+class ChunkGridTests {
+
+	@ParameterizedTest
+	@ValueSource(ints = { 0, 1, 2, 17, 100, 5000 })
+	void sortByDescendingWeight_keepsCoordsTogetherWithWeights(int size) {
+		Random random = new Random(size);
+		ChunkGrid grid = new ChunkGrid(4);
+		Map<Chunk, Double> expectedWeights = new HashMap<>();
+		for (int i = 0; i < size; i++) {
+			double weight = random.nextInt(10) == 0 ? 0 : random.nextDouble();
+			grid.add(i, -i, weight);
+			expectedWeights.put(new Chunk(i, -i), weight);
+		}
+
+		grid.sortByDescendingWeight();
+
+		assertEquals(size, grid.size());
+		for (int i = 0; i < grid.size(); i++) {
+			assertEquals(expectedWeights.get(new Chunk(grid.x(i), grid.z(i))), grid.weight(i));
+			if (i > 0)
+				assertTrue(grid.weight(i - 1) >= grid.weight(i), "Chunks are not sorted at index " + i);
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 2, 17, 100 })
+	void normalize_makesWeightsSumToOne(int size) {
+		Random random = new Random(size);
+		ChunkGrid grid = new ChunkGrid();
+		for (int i = 0; i < size; i++) {
+			grid.add(i, i, random.nextDouble());
+		}
+
+		grid.normalize();
+
+		assertEquals(1.0, grid.totalWeight(), 1e-12);
+		assertEquals(grid.weight(grid.indexOfMaxWeight()), grid.getChunk(grid.indexOfMaxWeight()).weight);
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 0, 1, 17, 100 })
+	void subsetOfNonZeroWeights_keepsOrderOfNonZeroChunks(int size) {
+		Random random = new Random(size);
+		ChunkGrid grid = new ChunkGrid(4);
+		for (int i = 0; i < size; i++) {
+			grid.add(i, -i, random.nextInt(3) == 0 ? 0 : random.nextDouble());
+		}
+
+		int[] indices = grid.indicesOfNonZeroWeights();
+		ChunkGrid subset = grid.subset(indices);
+
+		assertEquals(indices.length, subset.size());
+		for (int k = 0; k < subset.size(); k++) {
+			if (k > 0)
+				assertTrue(indices[k - 1] < indices[k]);
+			assertTrue(subset.weight(k) != 0);
+			assertEquals(grid.getChunk(indices[k]), subset.getChunk(k));
+			assertEquals(grid.weight(indices[k]), subset.weight(k));
+		}
+		assertEquals(grid.totalWeight(), subset.totalWeight(), 1e-12);
+	}
+
+}
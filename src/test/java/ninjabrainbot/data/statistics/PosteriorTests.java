@@ -0,0 +1,280 @@
+package ninjabrainbot.data.statistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import ninjabrainbot.data.datalock.AlwaysUnlocked;
+import ninjabrainbot.data.divine.DivineContext;
+import ninjabrainbot.data.endereye.IThrow;
+import ninjabrainbot.data.endereye.StandardStdProfile;
+import ninjabrainbot.data.endereye.ThrowSet;
+import ninjabrainbot.data.stronghold.Chunk;
+import ninjabrainbot.data.stronghold.StrongholdConstants;
+import ninjabrainbot.io.preferences.MultipleChoicePreferenceDataTypes.McVersion;
+import ninjabrainbot.io.preferences.NinjabrainBotPreferences;
+import ninjabrainbot.io.preferences.UnsavedPreferences;
+import ninjabrainbot.util.TestUtils;
+
+class PosteriorTests {
+
+	DivineContext divineContext;
+	StandardStdProfile stdProfile;
+
+	@BeforeEach
+	void setup() {
+		divineContext = new DivineContext(new AlwaysUnlocked());
+		stdProfile = new StandardStdProfile(new NinjabrainBotPreferences(new UnsavedPreferences()));
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = { true, false })
+	void update_withAppendedThrows_isIdenticalToRebuiltPosterior(boolean useAdvStatistics) {
+		ThrowSet throwSet = new ThrowSet(new AlwaysUnlocked());
+		throwSet.add(createThrow(1000, -1000, 45.12));
+		Posterior posterior = new Posterior(throwSet, divineContext, useAdvStatistics, McVersion.PRE_119);
+
+		throwSet.add(createThrow(1200, -1100, 50.3));
+		throwSet.add(createThrow(1300, -1000, 53.17));
+		Posterior updatedPosterior = posterior.update(throwSet, divineContext, useAdvStatistics, McVersion.PRE_119);
+		Posterior rebuiltPosterior = new Posterior(throwSet, divineContext, useAdvStatistics, McVersion.PRE_119);
+
+		assertIdentical(rebuiltPosterior.getChunks(), updatedPosterior.getChunks());
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = { true, false })
+	void update_withModifiedThrow_isIdenticalToRebuiltPosterior(boolean useAdvStatistics) {
+		ThrowSet throwSet = new ThrowSet(new AlwaysUnlocked());
+		throwSet.add(createThrow(1000, -1000, 45.12));
+		throwSet.add(createThrow(1200, -1100, 50.3));
+		Posterior posterior = new Posterior(throwSet, divineContext, useAdvStatistics, McVersion.PRE_119);
+
+		throwSet.get(1).addCorrection(0.01);
+		throwSet.add(createThrow(1300, -1000, 53.17));
+		Posterior updatedPosterior = posterior.update(throwSet, divineContext, useAdvStatistics, McVersion.PRE_119);
+		Posterior rebuiltPosterior = new Posterior(throwSet, divineContext, useAdvStatistics, McVersion.PRE_119);
+
+		assertIdentical(rebuiltPosterior.getChunks(), updatedPosterior.getChunks());
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = { true, false })
+	void update_withAppendedOrModifiedThrows_doesNotRebuildDomain(boolean useAdvStatistics) {
+		ThrowSet throwSet = new ThrowSet(new AlwaysUnlocked());
+		throwSet.add(createThrow(1000, -1000, 45.12));
+		Posterior posterior = new Posterior(throwSet, divineContext, useAdvStatistics, McVersion.PRE_119);
+
+		throwSet.add(createThrow(1200, -1100, 50.3));
+		Posterior appendedPosterior = posterior.update(throwSet, divineContext, useAdvStatistics, McVersion.PRE_119);
+		assertTrue(appendedPosterior.hasSameDomainAs(posterior));
+		assertIdentical(new Posterior(throwSet, divineContext, useAdvStatistics, McVersion.PRE_119).getChunks(), appendedPosterior.getChunks());
+
+		throwSet.get(1).addCorrection(0.01);
+		Posterior correctedPosterior = appendedPosterior.update(throwSet, divineContext, useAdvStatistics, McVersion.PRE_119);
+		assertTrue(correctedPosterior.hasSameDomainAs(posterior));
+		assertIdentical(new Posterior(throwSet, divineContext, useAdvStatistics, McVersion.PRE_119).getChunks(), correctedPosterior.getChunks());
+
+		throwSet.get(0).addCorrection(0.01);
+		Posterior correctedFirstPosterior = correctedPosterior.update(throwSet, divineContext, useAdvStatistics, McVersion.PRE_119);
+		assertTrue(correctedFirstPosterior.hasSameDomainAs(posterior));
+		assertIdentical(new Posterior(throwSet, divineContext, useAdvStatistics, McVersion.PRE_119).getChunks(), correctedFirstPosterior.getChunks());
+
+		// The first throw is corrected outside of the sector of the domain
+		throwSet.get(0).addCorrection(Posterior.DOMAIN_SECTOR_WIDTH);
+		Posterior rebuiltPosterior = correctedFirstPosterior.update(throwSet, divineContext, useAdvStatistics, McVersion.PRE_119);
+		assertFalse(rebuiltPosterior.hasSameDomainAs(posterior));
+		assertIdentical(new Posterior(throwSet, divineContext, useAdvStatistics, McVersion.PRE_119).getChunks(), rebuiltPosterior.getChunks());
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = { true, false })
+	void update_withChangedStd_isIdenticalToRebuiltPosterior(boolean useAdvStatistics) {
+		ThrowSet throwSet = new ThrowSet(new AlwaysUnlocked());
+		throwSet.add(createThrow(1000, -1000, 45.12));
+		throwSet.add(createThrow(1200, -1100, 50.3));
+		throwSet.add(createThrow(1300, -1000, 53.17));
+		Posterior posterior = new Posterior(throwSet, divineContext, useAdvStatistics, McVersion.PRE_119);
+
+		throwSet.get(1).setStdProfileNumber(StandardStdProfile.ALTERNATIVE);
+		Posterior updatedPosterior = posterior.update(throwSet, divineContext, useAdvStatistics, McVersion.PRE_119);
+		Posterior rebuiltPosterior = new Posterior(throwSet, divineContext, useAdvStatistics, McVersion.PRE_119);
+
+		assertIdentical(rebuiltPosterior.getChunks(), updatedPosterior.getChunks());
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = { true, false })
+	void update_withRemovedThrow_isIdenticalToRebuiltPosterior(boolean useAdvStatistics) {
+		ThrowSet throwSet = new ThrowSet(new AlwaysUnlocked());
+		throwSet.add(createThrow(1000, -1000, 45.12));
+		throwSet.add(createThrow(1200, -1100, 50.3));
+		throwSet.add(createThrow(1300, -1000, 53.17));
+		Posterior posterior = new Posterior(throwSet, divineContext, useAdvStatistics, McVersion.PRE_119);
+
+		throwSet.remove(throwSet.get(1));
+		Posterior updatedPosterior = posterior.update(throwSet, divineContext, useAdvStatistics, McVersion.PRE_119);
+		Posterior rebuiltPosterior = new Posterior(throwSet, divineContext, useAdvStatistics, McVersion.PRE_119);
+
+		assertIdentical(rebuiltPosterior.getChunks(), updatedPosterior.getChunks());
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 2, 3 })
+	void parallelPosterior_isIdenticalToSerialPosterior(int numThrows) {
+		ThrowSet throwSet = new ThrowSet(new AlwaysUnlocked());
+		throwSet.add(createThrow(1000, -1000, 45.12));
+		if (numThrows > 1)
+			throwSet.add(createThrow(1200, -1100, 50.3));
+		if (numThrows > 2)
+			throwSet.add(createThrow(1300, -1000, 53.17));
+
+		Posterior serialPosterior = new Posterior(throwSet, divineContext, true, false, McVersion.PRE_119);
+		Posterior parallelPosterior = new Posterior(throwSet, divineContext, true, true, McVersion.PRE_119);
+
+		assertIdentical(serialPosterior.getChunks(), parallelPosterior.getChunks());
+	}
+
+	@ParameterizedTest
+	@CsvSource({ "1000, -1000, 45.12, 1200, -1100, 50.3, 1300, -1000, 53.17", "-300, 200, -160.4, -250, 210, -161.9, -200, 250, -163.2", "2000, 1000, -45, 2100, 1100, -45, 2000, 1000, 45" })
+	void posterior_isWithinPruningToleranceOfExactPosterior(double x1, double z1, double alpha1, double x2, double z2, double alpha2, double x3, double z3, double alpha3) {
+		ThrowSet throwSet = new ThrowSet(new AlwaysUnlocked());
+		throwSet.add(createThrow(x1, z1, alpha1));
+		throwSet.add(createThrow(x2, z2, alpha2));
+		throwSet.add(createThrow(x3, z3, alpha3));
+
+		Posterior posterior = new Posterior(throwSet, divineContext, false, McVersion.PRE_119);
+
+		// The domain of the posterior is narrowed to the intersection of the cones
+		// of the throws, chunks outside of it have weight 0
+		Map<Chunk, Double> actualWeights = new HashMap<>();
+		for (Chunk chunk : posterior.getChunks().asChunks()) {
+			actualWeights.put(chunk, chunk.weight);
+		}
+		ChunkGrid exact = createExactPosterior(throwSet);
+		double totalVariation = 0;
+		for (Chunk chunk : exact.asChunks()) {
+			Double actualWeight = actualWeights.get(chunk);
+			if (Double.isNaN(chunk.weight)) {
+				// Inconsistent throws
+				assertTrue(actualWeight == null || actualWeight.isNaN());
+			} else {
+				totalVariation += Math.abs(chunk.weight - (actualWeight != null ? actualWeight : 0)) / 2;
+			}
+		}
+		assertTrue(totalVariation <= throwSet.size() * Posterior.PRUNING_TOLERANCE, "Total variation " + totalVariation + " is too large.");
+	}
+
+	@ParameterizedTest
+	@ValueSource(doubles = { 1e-5, 1e-3 })
+	void discardingPosterior_isWithinDiscardedProbabilityOfFullPosterior(double maxDiscardedProbability) {
+		ThrowSet throwSet = new ThrowSet(new AlwaysUnlocked());
+		throwSet.add(createThrow(500, 300, -67.6));
+		throwSet.add(createThrow(600, 100, -60.7));
+		throwSet.add(createThrow(450, 450, -72.5));
+
+		Posterior fullPosterior = new Posterior(throwSet, divineContext, false, McVersion.PRE_119);
+		Posterior discardingPosterior = new Posterior(throwSet, divineContext, false, false, maxDiscardedProbability, McVersion.PRE_119);
+
+		double discardedProbability = discardingPosterior.getDiscardedProbability();
+		assertTrue(discardedProbability <= throwSet.size() * maxDiscardedProbability);
+		assertTrue(discardingPosterior.getChunks().size() < fullPosterior.getChunks().size());
+		Map<Chunk, Double> discardingWeights = new HashMap<>();
+		for (Chunk chunk : discardingPosterior.getChunks().asChunks()) {
+			discardingWeights.put(chunk, chunk.weight);
+		}
+		double totalVariation = 0;
+		for (Chunk chunk : fullPosterior.getChunks().asChunks()) {
+			Double weight = discardingWeights.get(chunk);
+			totalVariation += Math.abs(chunk.weight - (weight != null ? weight : 0)) / 2;
+		}
+		double tolerance = discardedProbability + 2 * throwSet.size() * Posterior.PRUNING_TOLERANCE;
+		assertTrue(totalVariation <= tolerance, "Total variation " + totalVariation + " is larger than " + tolerance + ".");
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = { true, false })
+	void update_withDiscardedChunks_isIdenticalToRebuiltPosterior(boolean useAdvStatistics) {
+		ThrowSet throwSet = new ThrowSet(new AlwaysUnlocked());
+		throwSet.add(createThrow(500, 300, -67.6));
+		throwSet.add(createThrow(600, 100, -60.7));
+		Posterior posterior = new Posterior(throwSet, divineContext, useAdvStatistics, false, 1e-4, McVersion.PRE_119);
+
+		throwSet.get(1).addCorrection(0.01);
+		throwSet.add(createThrow(450, 450, -72.5));
+		Posterior updatedPosterior = posterior.update(throwSet, divineContext, useAdvStatistics, false, 1e-4, McVersion.PRE_119);
+		Posterior rebuiltPosterior = new Posterior(throwSet, divineContext, useAdvStatistics, false, 1e-4, McVersion.PRE_119);
+
+		assertIdentical(rebuiltPosterior.getChunks(), updatedPosterior.getChunks());
+		assertEquals(rebuiltPosterior.getDiscardedProbability(), updatedPosterior.getDiscardedProbability());
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 10, 50 })
+	void posterior_withManyConsistentThrows_isNormalized(int numThrows) {
+		ThrowSet throwSet = new ThrowSet(new AlwaysUnlocked());
+		for (int k = 0; k < numThrows; k++) {
+			double x = 500 + 10 * k;
+			double z = 300 - 20 * k;
+			throwSet.add(createThrow(x, z, -180 / Math.PI * Math.atan2(2200 - x, 1000 - z)));
+		}
+
+		Posterior posterior = new Posterior(throwSet, divineContext, false, McVersion.PRE_119);
+
+		assertEquals(1.0, posterior.getChunks().totalWeight(), 1e-9);
+		Chunk chunk = posterior.getMostProbableChunk();
+		assertTrue(Math.abs(chunk.x * 16 + 8 - 2200) <= 16 && Math.abs(chunk.z * 16 + 8 - 1000) <= 16, "Wrong chunk " + chunk.x + ", " + chunk.z);
+	}
+
+	/**
+	 * Conditions the prior on every throw, evaluating the likelihood of every
+	 * chunk.
+	 */
+	private ChunkGrid createExactPosterior(ThrowSet throwSet) {
+		IThrow firstThrow = throwSet.get(0);
+		double priorTolerance = Math.min(1.0, 30 * firstThrow.getStd()) / 180.0 * Math.PI;
+		ChunkGrid chunks = new RayApproximatedPrior(firstThrow, priorTolerance, divineContext, McVersion.PRE_119).getChunkGrid();
+		double maxDist = StrongholdConstants.getMaxDistance(firstThrow.x(), firstThrow.z()) / 16.0;
+		for (int i = 0; i < chunks.size(); i++) {
+			double dx = chunks.x(i) - firstThrow.x() / 16.0;
+			double dz = chunks.z(i) - firstThrow.z() / 16.0;
+			if (dx * dx + dz * dz > maxDist * maxDist)
+				chunks.setWeight(i, 0);
+		}
+		int strongholdChunkCoord = StrongholdConstants.getStrongholdChunkCoord(McVersion.PRE_119);
+		for (IThrow t : throwSet) {
+			for (int i = 0; i < chunks.size(); i++) {
+				double gamma = -180 / Math.PI * Math.atan2(chunks.x(i) * 16 + strongholdChunkCoord - t.x(), chunks.z(i) * 16 + strongholdChunkCoord - t.z());
+				double delta = Math.abs((gamma - t.alpha()) % 360.0);
+				delta = Math.min(delta, 360.0 - delta);
+				chunks.setWeight(i, chunks.weight(i) * Math.exp(-delta * delta / (2 * t.getStd() * t.getStd())));
+			}
+			chunks.normalize();
+		}
+		return chunks;
+	}
+
+	private IThrow createThrow(double x, double z, double alpha) {
+		IThrow t = TestUtils.createThrow(x, z, alpha);
+		t.setStdProfile(stdProfile);
+		return t;
+	}
+
+	private void assertIdentical(ChunkGrid expected, ChunkGrid actual) {
+		assertEquals(expected.size(), actual.size(), "Wrong number of chunks.");
+		for (int i = 0; i < expected.size(); i++) {
+			assertEquals(expected.x(i), actual.x(i));
+			assertEquals(expected.z(i), actual.z(i));
+			assertEquals(expected.weight(i), actual.weight(i));
+		}
+	}
+
+}
@@ -0,0 +1,74 @@
+package ninjabrainbot.data.statistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import ninjabrainbot.data.datalock.AlwaysUnlocked;
+import ninjabrainbot.data.divine.DivineContext;
+import ninjabrainbot.data.stronghold.StrongholdConstants;
+
+class PrecomputedPriorTests {
+
+	static final String NOT_GENERATED = "The precomputed prior is generated by the Maven build, in the process-classes phase.";
+
+	@BeforeEach
+	void assumeGenerated() {
+		assumeTrue(isGenerated(), NOT_GENERATED);
+	}
+
+	@Test
+	void precomputedPriorIsAvailable() {
+		assertNotNull(PrecomputedPrior.get());
+	}
+
+	@ParameterizedTest
+	@CsvSource({ "0, 0", "100, 20", "20, 100", "-100, 20", "-20, -100", "130, -131", "-300, 297", "1400, -50", "0, 1500" })
+	void weightIsIdenticalToPrior(int x, int z) {
+		IPrior prior = new Prior(x, z, 0, new DivineContext(new AlwaysUnlocked()));
+		double expected = prior.getChunks().iterator().next().weight;
+
+		assertEquals(expected, PrecomputedPrior.get().weight(x, z), expected * 1e-6);
+	}
+
+	@Test
+	void weightIsZeroOutsideDomain() {
+		assertEquals(0, PrecomputedPrior.get().weight(StrongholdConstants.maxChunk + 1, 0));
+		assertEquals(0, PrecomputedPrior.get().weight(0, -StrongholdConstants.maxChunk - 100));
+	}
+
+	@Test
+	void modifiedCopy_isExtractedAgain() throws IOException {
+		assertNotNull(PrecomputedPrior.get());
+		Path path = PrecomputedPrior.getExtractedPath();
+		byte[] bytes = Files.readAllBytes(path);
+		bytes[bytes.length - 1] ^= 1;
+		// The copy is replaced instead of written to, because it is mapped by
+		// PrecomputedPrior.get()
+		Path tempPath = Files.createTempFile(path.getParent(), "modified", ".tmp");
+		Files.write(tempPath, bytes);
+		Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING);
+
+		assertNotNull(PrecomputedPrior.load());
+		assertEquals((byte) (bytes[bytes.length - 1] ^ 1), Files.readAllBytes(path)[bytes.length - 1]);
+	}
+
+	/**
+	 * Returns true if the precomputed prior has been generated, which is not the
+	 * case if the tests are run without Maven.
+	 */
+	static boolean isGenerated() {
+		return PrecomputedPrior.class.getResource(PrecomputedPrior.RESOURCE) != null;
+	}
+
+}
@@ -0,0 +1,77 @@
+package ninjabrainbot.data.statistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+
+import ninjabrainbot.data.datalock.AlwaysUnlocked;
+import ninjabrainbot.data.divine.DivineContext;
+import ninjabrainbot.data.divine.Fossil;
+import ninjabrainbot.data.stronghold.Chunk;
+
+class PriorIndexTests {
+
+	@ParameterizedTest
+	@CsvSource({ "100.5, -50.25, 25, -1", "-130, 7, 25, 3", "0, 0, 40, -1", "300.75, 410.5, 25, -1", "-90, -95.5, 30, 11", "1520, 3, 25, -1", "-2000, 0, 25, -1" })
+	void probabilityWithinIsIdenticalToSumOverApproximatedPrior(double x, double z, double radius, int fossil) {
+		DivineContext divineContext = new DivineContext(new AlwaysUnlocked());
+		if (fossil >= 0)
+			divineContext.setFossil(new Fossil(fossil));
+		IPrior prior = new ApproximatedPrior((int) x, (int) z, (int) radius + 2, divineContext);
+
+		double expected = 0;
+		for (Chunk chunk : prior.getChunks()) {
+			if ((chunk.x - x) * (chunk.x - x) + (chunk.z - z) * (chunk.z - z) < radius * radius)
+				expected += chunk.weight;
+		}
+
+		PriorIndex priorIndex = PriorIndex.get(divineContext.getFossil(), true);
+		assertEquals(expected, priorIndex.probabilityWithin(x, z, radius), 1e-12 * expected + 1e-15);
+	}
+
+	@ParameterizedTest
+	@CsvSource({ "100.5, -50.25, 10", "-150, -10, 12" })
+	void probabilityWithinIsIdenticalToSumOverExactPrior(double x, double z, double radius) {
+		assumeTrue(PrecomputedPriorTests.isGenerated(), PrecomputedPriorTests.NOT_GENERATED);
+		IPrior prior = new Prior((int) x, (int) z, (int) radius + 2, new DivineContext(new AlwaysUnlocked()));
+
+		double expected = 0;
+		for (Chunk chunk : prior.getChunks()) {
+			if ((chunk.x - x) * (chunk.x - x) + (chunk.z - z) * (chunk.z - z) < radius * radius)
+				expected += chunk.weight;
+		}
+
+		PriorIndex priorIndex = PriorIndex.get(null, false);
+		assertEquals(expected, priorIndex.probabilityWithin(x, z, radius), 1e-6 * expected);
+	}
+
+	@Test
+	void numberOfSegmentsIsBounded() {
+		int maxSegments = 200;
+		DivineContext divineContext = new DivineContext(new AlwaysUnlocked());
+		PriorIndex boundedIndex = new PriorIndex(new ApproximatedPrior(0, 0, 0, divineContext), maxSegments);
+		PriorIndex unboundedIndex = new PriorIndex(new ApproximatedPrior(0, 0, 0, divineContext), Integer.MAX_VALUE);
+
+		// Every disk has about 50 segments
+		for (int k = 0; k < 20; k++) {
+			double x = -1000 + 100 * k;
+			double z = 300 - 37 * k;
+			assertEquals(unboundedIndex.probabilityWithin(x, z, 25), boundedIndex.probabilityWithin(x, z, 25));
+			assertTrue(boundedIndex.numSegments() <= maxSegments);
+			// The disk that was queried last is still cached
+			assertEquals(unboundedIndex.probabilityWithin(0, 0, 25), boundedIndex.probabilityWithin(0, 0, 25));
+		}
+		assertTrue(unboundedIndex.numSegments() > maxSegments);
+	}
+
+	@Test
+	void exactPriorIndexIsNotAvailableWithFossil() {
+		assertNull(PriorIndex.get(new Fossil(4), false));
+	}
+
+}
@@ -3,6 +3,7 @@ package ninjabrainbot.data.statistics;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.junit.jupiter.api.Assertions.fail;
 
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Set;
 
@@ -17,6 +18,7 @@ import ninjabrainbot.data.divine.Fossil;
 import ninjabrainbot.data.stronghold.Chunk;
 import ninjabrainbot.data.stronghold.Ring;
 import ninjabrainbot.data.stronghold.RingIterator;
+import ninjabrainbot.data.stronghold.StrongholdConstants;
 
 class PriorTests {
 
@@ -103,4 +105,59 @@ class PriorTests {
 		assertEquals(prior0.getChunks().iterator().next().weight, chunk.weight);
 	}
 
+	@ParameterizedTest
+	@CsvSource({ "128, 0, 3", "100, -100, 10", "-50, 111, 6", "-150, -10, 20" })
+	void probabilityAtOffCenterCoordsIsIndependentOfDomain(int x, int z, int radius) {
+		IPrior prior0 = new Prior(x + radius, z - radius / 2, 0, divineContext);
+		IPrior prior = new Prior(x, z, radius, divineContext);
+
+		Chunk chunk = null;
+		for (Chunk c : prior.getChunks()) {
+			if (c.x == x + radius && c.z == z - radius / 2) {
+				chunk = c;
+				break;
+			}
+		}
+
+		assertEquals(prior0.getChunks().iterator().next().weight, chunk.weight, 1e-12 * chunk.weight);
+	}
+
+	@ParameterizedTest
+	@CsvSource({ "0, 0, 10, -1", "100, -100, 10, 3", "-50, 111, 6, 13", "-150, -10, 20, -1" })
+	void smoothedWeightsMatchDenseConvolution(int x, int z, int radius, int fossil) {
+		if (fossil >= 0)
+			divineContext.setFossil(new Fossil(fossil));
+		Prior unsmoothed = new Prior(x, z, radius, divineContext) {
+			@Override
+			protected void smoothWeights() {
+			}
+		};
+		Prior prior = new Prior(x, z, radius, divineContext);
+
+		int r = StrongholdConstants.snappingRadius;
+		HashMap<Integer, Integer> offsetWeights = Prior.getOffsetWeights();
+		double offsetWeightSum = 0;
+		for (int k = -r; k <= r; k++) {
+			for (int l = -r; l <= r; l++) {
+				offsetWeightSum += offsetWeights.get(k) * offsetWeights.get(l);
+			}
+		}
+		int numChunks = 0;
+		for (Chunk chunk : prior.getChunks()) {
+			double expected = 0;
+			for (int k = -r; k <= r; k++) {
+				for (int l = -r; l <= r; l++) {
+					int idx = (chunk.z + l - unsmoothed.z0) + (chunk.x + k - unsmoothed.x0) * unsmoothed.size1d;
+					Chunk unsmoothedChunk = unsmoothed.chunks[idx];
+					assertEquals(chunk.x + k, unsmoothedChunk.x);
+					assertEquals(chunk.z + l, unsmoothedChunk.z);
+					expected += unsmoothedChunk.weight * offsetWeights.get(k) * offsetWeights.get(l) / offsetWeightSum;
+				}
+			}
+			assertEquals(expected, chunk.weight, 1e-12 * expected);
+			numChunks++;
+		}
+		assertEquals((1 + 2 * radius) * (1 + 2 * radius), numChunks, "Wrong number of chunks.");
+	}
+
 }
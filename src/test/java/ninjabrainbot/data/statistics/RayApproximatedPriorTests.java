@@ -1,6 +1,8 @@
 package ninjabrainbot.data.statistics;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
 
 import java.util.HashMap;
 import java.util.Map;
@@ -38,7 +40,7 @@ class RayApproximatedPriorTests {
 		double ringArea = Math.PI * (ring.outerRadiusPostSnapping * ring.outerRadiusPostSnapping - ring.innerRadiusPostSnapping * ring.innerRadiusPostSnapping);
 		double averageWeightInRing = ring.numStrongholds / ringArea;
 
-		IPrior rayApproximatedPrior = new RayApproximatedPrior(TestUtils.createRay(x, z, angle), 10 * Math.PI / 180, divineContext, McVersion.PRE_119);
+		IPrior rayApproximatedPrior = new RayApproximatedPrior(TestUtils.createRay(x, z, angle), 10 * Math.PI / 180, divineContext, McVersion.PRE_119, false);
 		IPrior approximatedPrior = new ApproximatedPrior(0, 0, radius, divineContext);
 
 		Map<Chunk, Chunk> expectedChunks = new HashMap<>();
@@ -69,6 +71,30 @@ class RayApproximatedPriorTests {
 		assertEquals(0, meanError, 1e-6, "Mean error exceeded maximum tolerance of 1 PPM.");
 	}
 
+	@ParameterizedTest
+	@CsvSource({ "8, 8, 0", "0, -5000, 25", "1000, -1000, 45", "-150, -10, 20" })
+	void probabilitiesAreIdenticalToTruePrior(double x, double z, double angle) {
+		assumeTrue(PrecomputedPriorTests.isGenerated(), PrecomputedPriorTests.NOT_GENERATED);
+		// Without fossil the ray prior samples the precomputed exact prior, which is
+		// stored with float precision
+		IPrior rayApproximatedPrior = new RayApproximatedPrior(TestUtils.createRay(x, z, angle), 10 * Math.PI / 180, divineContext, McVersion.PRE_119);
+
+		Map<Chunk, Chunk> expectedChunks = new HashMap<>();
+		for (Chunk chunk : truePrior.getChunks()) {
+			expectedChunks.put(chunk, chunk);
+		}
+
+		int numChunks = 0;
+		for (Chunk chunk : rayApproximatedPrior.getChunks()) {
+			Chunk expected = expectedChunks.get(chunk);
+			if (expected == null)
+				continue;
+			assertEquals(expected.weight, chunk.weight, expected.weight * 1e-6, "Failed for chunk: " + chunk.toString());
+			numChunks++;
+		}
+		assertTrue(numChunks > 0);
+	}
+
 	@ParameterizedTest
 	@CsvSource({ "8, 8, 0, 3", "0, -500, 25, 4", "-1000, 1000, -135, 11", "-150, -10, 20, 4" })
 	void probabilitiesAreIdenticalToApproximatedPrior_withFossilDivine(double x, double z, double angle, int fossil) {
@@ -0,0 +1,46 @@
+package ninjabrainbot.data.stronghold;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class RingTests {
+
+	@ParameterizedTest
+	@ValueSource(doubles = { 0.1, 0.5, 1, 2 })
+	void get_returnsSameRingAsLinearScan(double step) {
+		for (double chunkR = 0; chunkR < StrongholdConstants.maxChunk + 100; chunkR += step) {
+			Ring expected = null;
+			for (Ring ring : new RingIterator()) {
+				if (ring.inRing(chunkR))
+					expected = ring;
+			}
+			Ring actual = Ring.get(chunkR);
+			if (expected == null)
+				assertEquals(null, actual, "Distance " + chunkR + " is not in a ring.");
+			else
+				assertSame(Ring.get(expected.ring), actual, "Wrong ring at distance " + chunkR + ".");
+		}
+	}
+
+	@ParameterizedTest
+	@ValueSource(doubles = { 0, 100, 1500, 2700, 5000, 20000, 50000 })
+	void getMaxDistance_isSameAsWithNewRings(double r) {
+		for (int k = 0; k < 16; k++) {
+			double x = r * Math.cos(k * Math.PI / 8);
+			double z = r * Math.sin(k * Math.PI / 8);
+			double rChunks = Math.sqrt(x * x + z * z) / 16.0;
+			double maxDistance = Double.POSITIVE_INFINITY;
+			for (Ring ring : new RingIterator()) {
+				double inner = ring.innerRadius * ring.innerRadius + rChunks * rChunks - 2 * rChunks * ring.innerRadius * Math.cos(Math.PI / ring.numStrongholds);
+				double outer = ring.outerRadius * ring.outerRadius + rChunks * rChunks - 2 * rChunks * ring.outerRadius * Math.cos(Math.PI / ring.numStrongholds);
+				maxDistance = Math.min(maxDistance, Math.sqrt(Math.max(inner, outer)));
+			}
+			double expected = (maxDistance + Math.sqrt(2) * (StrongholdConstants.snappingRadius + 0.5)) * 16.0;
+			assertEquals(expected, StrongholdConstants.getMaxDistance(x, z));
+		}
+	}
+
+}
@@ -0,0 +1,210 @@
+package ninjabrainbot.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.json.JSONObject;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import ninjabrainbot.data.DataStateHandler;
+import ninjabrainbot.data.divine.Fossil;
+import ninjabrainbot.data.endereye.IThrow;
+import ninjabrainbot.event.ObservableProperty;
+import ninjabrainbot.io.preferences.NinjabrainBotPreferences;
+import ninjabrainbot.io.preferences.UnsavedPreferences;
+import ninjabrainbot.util.TestUtils;
+
+class ApiServerTests {
+
+	ObservableProperty<IThrow> throwStream;
+	ObservableProperty<Fossil> fossilStream;
+	ApiServer apiServer;
+
+	@BeforeEach
+	void setup() throws IOException {
+		NinjabrainBotPreferences preferences = new NinjabrainBotPreferences(new UnsavedPreferences());
+		DataStateHandler dataStateHandler = new DataStateHandler(preferences);
+		throwStream = new ObservableProperty<IThrow>();
+		fossilStream = new ObservableProperty<Fossil>();
+		dataStateHandler.addThrowStream(throwStream);
+		dataStateHandler.addFossilStream(fossilStream);
+		apiServer = new ApiServer(dataStateHandler, 0);
+	}
+
+	@AfterEach
+	void tearDown() {
+		apiServer.dispose();
+	}
+
+	@Test
+	void state_isUpdatedWithTheDataState() throws IOException {
+		JSONObject state = new JSONObject(get(ApiServer.STATE_PATH));
+		assertEquals("NONE", state.getString("resultType"));
+		assertEquals(0, state.getJSONArray("throws").length());
+
+		fossilStream.notifySubscribers(new Fossil(3));
+		state = new JSONObject(get(ApiServer.STATE_PATH));
+		assertEquals("DIVINE", state.getString("resultType"));
+		assertEquals(3, state.getJSONObject("divineResult").getInt("fossilX"));
+
+		throwStream.notifySubscribers(TestUtils.createThrow(2000, 1000, -45));
+		state = new JSONObject(get(ApiServer.STATE_PATH));
+		assertEquals("TRIANGULATION", state.getString("resultType"));
+		assertEquals(-45, state.getJSONArray("throws").getJSONObject(0).getDouble("angle"));
+		assertTrue(state.getJSONArray("predictions").length() > 0);
+	}
+
+	@Test
+	void unchangedState_isNotSentAgain() throws IOException {
+		HttpURLConnection connection = open(ApiServer.STATE_PATH);
+		assertEquals(200, connection.getResponseCode());
+		String etag = connection.getHeaderField("ETag");
+		connection.disconnect();
+
+		connection = open(ApiServer.STATE_PATH);
+		connection.setRequestProperty("If-None-Match", etag);
+		assertEquals(304, connection.getResponseCode());
+		connection.disconnect();
+
+		throwStream.notifySubscribers(TestUtils.createThrow(2000, 1000, -45));
+		connection = open(ApiServer.STATE_PATH);
+		connection.setRequestProperty("If-None-Match", etag);
+		assertEquals(200, connection.getResponseCode());
+		connection.disconnect();
+	}
+
+	@Test
+	void events_areSentWhenTheDataStateIsModified() throws IOException {
+		HttpURLConnection connection = open(ApiServer.EVENTS_PATH);
+		connection.setReadTimeout(5000);
+		assertEquals("text/event-stream; charset=utf-8", connection.getHeaderField("Content-Type"));
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+			// The current state is sent first
+			JSONObject state = readEvent(reader);
+			assertEquals(0, state.getJSONArray("throws").length());
+
+			throwStream.notifySubscribers(TestUtils.createThrow(2000, 1000, -45));
+			state = readEvent(reader);
+			assertEquals(1, state.getJSONArray("throws").length());
+		}
+		connection.disconnect();
+	}
+
+	@Test
+	void post_isNotAllowed() throws IOException {
+		HttpURLConnection connection = open(ApiServer.STATE_PATH);
+		connection.setRequestMethod("POST");
+		assertEquals(405, connection.getResponseCode());
+		connection.disconnect();
+	}
+
+	@Test
+	void otherOrigins_areNotAllowedByDefault() throws IOException {
+		assertNull(getAllowedOrigin("https://example.com"));
+		assertNull(getAllowedOrigin("null"));
+	}
+
+	@Test
+	void allowedOrigins_areAllowed() throws IOException {
+		apiServer.dispose();
+		NinjabrainBotPreferences preferences = new NinjabrainBotPreferences(new UnsavedPreferences());
+		apiServer = new ApiServer(new DataStateHandler(preferences), 0, "null, http://localhost:8080");
+		assertEquals("null", getAllowedOrigin("null"));
+		assertEquals("http://localhost:8080", getAllowedOrigin("http://localhost:8080"));
+		assertNull(getAllowedOrigin("https://example.com"));
+	}
+
+	@Test
+	void otherHosts_areRejected() throws IOException {
+		assertEquals("HTTP/1.1 403 Forbidden", request(ApiServer.STATE_PATH, "example.com:" + apiServer.getPort(), null).get(0));
+		assertEquals("HTTP/1.1 403 Forbidden", request(ApiServer.STATE_PATH, "localhost", null).get(0));
+		assertEquals("HTTP/1.1 200 OK", request(ApiServer.STATE_PATH, "localhost:" + apiServer.getPort(), null).get(0));
+		assertEquals("HTTP/1.1 200 OK", request(ApiServer.STATE_PATH, "[::1]:" + apiServer.getPort(), null).get(0));
+	}
+
+	@Test
+	void numberOfEventStreams_isLimited() throws IOException {
+		List<HttpURLConnection> connections = new ArrayList<>();
+		try {
+			for (int i = 0; i < ApiServer.MAX_EVENT_STREAMS; i++) {
+				HttpURLConnection connection = open(ApiServer.EVENTS_PATH);
+				assertEquals(200, connection.getResponseCode());
+				connections.add(connection);
+			}
+			HttpURLConnection connection = open(ApiServer.EVENTS_PATH);
+			assertEquals(503, connection.getResponseCode());
+			connection.disconnect();
+			// Other requests are still answered
+			assertEquals(0, new JSONObject(get(ApiServer.STATE_PATH)).getJSONArray("throws").length());
+		} finally {
+			for (HttpURLConnection connection : connections)
+				connection.disconnect();
+		}
+	}
+
+	private HttpURLConnection open(String path) throws IOException {
+		return (HttpURLConnection) new URL("http://127.0.0.1:" + apiServer.getPort() + path).openConnection();
+	}
+
+	private String get(String path) throws IOException {
+		HttpURLConnection connection = open(path);
+		StringBuilder sb = new StringBuilder();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null)
+				sb.append(line);
+		}
+		connection.disconnect();
+		return sb.toString();
+	}
+
+	private String getAllowedOrigin(String origin) throws IOException {
+		for (String line : request(ApiServer.STATE_PATH, "localhost:" + apiServer.getPort(), origin)) {
+			if (line.toLowerCase().startsWith("access-control-allow-origin:"))
+				return line.substring(line.indexOf(':') + 1).trim();
+		}
+		return null;
+	}
+
+	/**
+	 * Returns the status line and the headers of the response. HttpURLConnection
+	 * does not let the Host and Origin headers be set, so the request is written to
+	 * a socket.
+	 */
+	private List<String> request(String path, String host, String origin) throws IOException {
+		try (Socket socket = new Socket(InetAddress.getLoopbackAddress(), apiServer.getPort())) {
+			String request = "GET " + path + " HTTP/1.1\r\nHost: " + host + "\r\n" + (origin != null ? "Origin: " + origin + "\r\n" : "") + "Connection: close\r\n\r\n";
+			socket.getOutputStream().write(request.getBytes(StandardCharsets.UTF_8));
+			BufferedReader reader = new BufferedReader(new InputStreamReader(socket.getInputStream(), StandardCharsets.UTF_8));
+			List<String> lines = new ArrayList<>();
+			String line;
+			while ((line = reader.readLine()) != null && !line.isEmpty())
+				lines.add(line);
+			return lines;
+		}
+	}
+
+	private static JSONObject readEvent(BufferedReader reader) throws IOException {
+		String line;
+		while ((line = reader.readLine()) != null) {
+			if (line.startsWith("data: "))
+				return new JSONObject(line.substring("data: ".length()));
+		}
+		throw new IOException("The stream ended.");
+	}
+
+}
@@ -0,0 +1,102 @@
+package ninjabrainbot.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.awt.datatransfer.Clipboard;
+import java.awt.datatransfer.StringSelection;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import ninjabrainbot.data.datalock.AlwaysUnlocked;
+import ninjabrainbot.data.divine.Fossil;
+import ninjabrainbot.data.endereye.IThrow;
+import ninjabrainbot.io.preferences.NinjabrainBotPreferences;
+import ninjabrainbot.io.preferences.UnsavedPreferences;
+
+class ClipboardReaderTests {
+
+	NinjabrainBotPreferences preferences;
+	Clipboard clipboard;
+	ClipboardReader clipboardReader;
+	Thread thread;
+	BlockingQueue<IThrow> throwQueue;
+	BlockingQueue<Fossil> fossilQueue;
+
+	@BeforeEach
+	void setup() {
+		preferences = new NinjabrainBotPreferences(new UnsavedPreferences());
+		clipboard = new Clipboard("test");
+		clipboardReader = new ClipboardReader(preferences, new AlwaysUnlocked(), clipboard, ClipboardReader.MAX_POLL_INTERVAL);
+		throwQueue = new ArrayBlockingQueue<>(10);
+		fossilQueue = new ArrayBlockingQueue<>(10);
+		clipboardReader.whenNewThrowInputed().subscribe(throwQueue::add);
+		clipboardReader.whenNewFossilInputed().subscribe(fossilQueue::add);
+		thread = new Thread(clipboardReader, "Clipboard reader");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		thread.interrupt();
+		thread.join(1000);
+	}
+
+	@ParameterizedTest
+	@ValueSource(booleans = { true, false })
+	void newClipboardContents_areInputted(boolean hint) throws InterruptedException {
+		setClipboard("/execute in minecraft:overworld run tp @s 100.50 64.00 -200.50 45.00 -31.00");
+		if (hint)
+			clipboardReader.forceRead();
+		IThrow t = throwQueue.poll(2, TimeUnit.SECONDS);
+		assertEquals(100.5, t.x());
+		assertEquals(-200.5, t.z());
+
+		setClipboard("/setblock 5 60 3 minecraft:bone_block");
+		if (hint)
+			clipboardReader.forceRead();
+		Fossil f = fossilQueue.poll(2, TimeUnit.SECONDS);
+		assertEquals(5, f.x);
+		assertEquals(2, clipboardReader.getLatency().getCount());
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 1, 3 })
+	void unchangedClipboardContents_areOnlyInputtedOnce(int numThrows) throws InterruptedException {
+		for (int i = 0; i < numThrows; i++) {
+			setClipboard("/execute in minecraft:overworld run tp @s " + i + ".00 64.00 0.00 45.00 -31.00");
+			assertEquals(i, throwQueue.poll(2, TimeUnit.SECONDS).x());
+			clipboardReader.forceRead();
+		}
+		assertNull(throwQueue.poll(3 * ClipboardReader.MAX_POLL_INTERVAL, TimeUnit.MILLISECONDS));
+	}
+
+	@ParameterizedTest
+	@ValueSource(ints = { 0, 1 })
+	void altClipboardReader_onlyReadsAfterF3C(int numEarlierThrows) throws InterruptedException {
+		preferences.altClipboardReader.set(true);
+		for (int i = 0; i < numEarlierThrows; i++) {
+			setClipboard("/execute in minecraft:overworld run tp @s 10.00 64.00 0.00 45.00 -31.00");
+			clipboardReader.forceRead();
+			throwQueue.poll(2, TimeUnit.SECONDS);
+		}
+		setClipboard("/execute in minecraft:overworld run tp @s 100.50 64.00 -200.50 45.00 -31.00");
+		assertNull(throwQueue.poll(3 * ClipboardReader.MAX_POLL_INTERVAL, TimeUnit.MILLISECONDS));
+
+		clipboardReader.forceRead();
+		assertEquals(100.5, throwQueue.poll(2, TimeUnit.SECONDS).x());
+	}
+
+	private void setClipboard(String string) {
+		StringSelection selection = new StringSelection(string);
+		clipboard.setContents(selection, selection);
+	}
+
+}
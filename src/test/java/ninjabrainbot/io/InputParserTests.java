@@ -0,0 +1,116 @@
+package ninjabrainbot.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.util.Random;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class InputParserTests {
+
+	private static final String[] VALID_STRINGS = {
+			"/execute in minecraft:overworld run tp @s 659.70 85.00 1950.30 -253.82 -31.75",
+			"/execute in minecraft:the_nether run tp @s -3.75 66.00 2002.63 -184.67 -31.75",
+			"/execute in minecraft:overworld run tp @s -0.00 70.00 123456789.123 0.0 90.0",
+			"100 -200 45.5",
+			"-1.5 2.25 -179.99",
+			"/setblock 5 -40 12 minecraft:bone_block",
+			"/setblock 0 0 15 minecraft:bone_block",
+	};
+
+	// Replacements that are inserted in random places of the valid strings
+	private static final String[] MUTATIONS = { " ", "  ", "", "-", "+", ".", "0", "9", "e5", "E-3", "d", "f", "NaN", "Infinity", "\t", "\n", "x", "12345678901234567", "0.000000000000001", "2147483648", "\u0663" };
+
+	@ParameterizedTest
+	@ValueSource(strings = { "/execute in minecraft:overworld run tp @s 659.70 85.00 1950.30 -253.82 -31.75", "/execute in minecraft:the_nether run tp @s -3.75 66.00 2002.63 -184.67 -31.75", "100 -200 45.5", "1e2 1E-2 0x1p3", "1. .5 -0", " 1 2", "1 2 3 ", "1  2", "+5 -5 NaN", "1 2 Infinity", "9007199254740993 0.1 0.30000000000000004",
+			"1 2\t 3", "", " ", "/setblock 5 -40 12 minecraft:bone_block", "/setblock 16 0 0 a", "/setblock 0 0 -1 a", "/setblock +3 0 -0 a", "/setblock 2147483648 0 0 a", "/setblock \u0663 0 0 a", "/setblock 1 2 3", "/execute in minecraft:overworld run tp @s 1 2 3 4" })
+	void parse_matchesSplitParser(String string) {
+		assertMatchesSplitParser(string);
+	}
+
+	@ParameterizedTest
+	@ValueSource(longs = { 0, 1, 2 })
+	void parse_ofMutatedStrings_matchesSplitParser(long seed) {
+		Random random = new Random(seed);
+		for (int i = 0; i < 20000; i++) {
+			StringBuilder sb = new StringBuilder(VALID_STRINGS[random.nextInt(VALID_STRINGS.length)]);
+			int numMutations = random.nextInt(3);
+			for (int j = 0; j < numMutations; j++) {
+				int start = random.nextInt(sb.length() + 1);
+				int end = Math.min(sb.length(), start + random.nextInt(3));
+				sb.replace(start, end, MUTATIONS[random.nextInt(MUTATIONS.length)]);
+			}
+			assertMatchesSplitParser(sb.toString());
+		}
+	}
+
+	private static void assertMatchesSplitParser(String string) {
+		InputParser parser = new InputParser();
+		InputParser.Result result = parser.parse(string);
+		double[] f3c = parseF3CSplit(string);
+		double[] f3c1_12 = f3c == null ? parseF3C1_12Split(string) : null;
+		Integer fossil = f3c == null && f3c1_12 == null ? parseF3ISplit(string) : null;
+		if (f3c != null) {
+			assertEquals(InputParser.Result.THROW, result, string);
+			assertEquals(f3c[0], parser.getX(), string);
+			assertEquals(f3c[1], parser.getZ(), string);
+			assertEquals(f3c[2], parser.getAlpha(), string);
+			assertEquals(f3c[3], parser.getBeta(), string);
+			assertEquals(f3c[4] == 1, parser.isNether(), string);
+		} else if (f3c1_12 != null) {
+			assertEquals(InputParser.Result.THROW_1_12, result, string);
+			assertEquals(f3c1_12[0], parser.getX(), string);
+			assertEquals(f3c1_12[1], parser.getZ(), string);
+			assertEquals(f3c1_12[2], parser.getAlpha(), string);
+		} else if (fossil != null) {
+			assertEquals(InputParser.Result.FOSSIL, result, string);
+			assertEquals(fossil, parser.getFossilX(), string);
+		} else {
+			assertEquals(false, result.accepted, string + " " + result);
+		}
+	}
+
+	// The split based parsers that InputParser replaced
+
+	private static double[] parseF3CSplit(String string) {
+		if (!(string.startsWith("/execute in minecraft:overworld run tp @s") || string.startsWith("/execute in minecraft:the_nether run tp @s")))
+			return null;
+		String[] substrings = string.split(" ");
+		if (substrings.length != 11)
+			return null;
+		try {
+			double nether = substrings[2].equals("minecraft:the_nether") ? 1 : 0;
+			return new double[] { Double.parseDouble(substrings[6]), Double.parseDouble(substrings[8]), Double.parseDouble(substrings[9]), Double.parseDouble(substrings[10]), nether };
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private static double[] parseF3C1_12Split(String string) {
+		String[] substrings = string.split(" ");
+		if (substrings.length != 3)
+			return null;
+		try {
+			return new double[] { Double.parseDouble(substrings[0]), Double.parseDouble(substrings[1]), Double.parseDouble(substrings[2]) };
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+	private static Integer parseF3ISplit(String string) {
+		if (!string.startsWith("/setblock "))
+			return null;
+		String[] substrings = string.split(" ");
+		if (substrings.length != 5)
+			return null;
+		try {
+			int x = Integer.parseInt(substrings[1]);
+			int z = Integer.parseInt(substrings[3]);
+			return 0 <= x && x < 16 && 0 <= z && z < 16 ? x : null;
+		} catch (NumberFormatException e) {
+			return null;
+		}
+	}
+
+}
@@ -0,0 +1,114 @@
+package ninjabrainbot.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.ValueSource;
+
+import ninjabrainbot.data.datalock.AlwaysUnlocked;
+import ninjabrainbot.data.divine.Fossil;
+import ninjabrainbot.data.endereye.IThrow;
+import ninjabrainbot.io.preferences.NinjabrainBotPreferences;
+import ninjabrainbot.io.preferences.UnsavedPreferences;
+
+class LogFileReaderTests {
+
+	@TempDir
+	Path directory;
+
+	Path file;
+	Thread thread;
+	BlockingQueue<IThrow> throwQueue;
+	BlockingQueue<Fossil> fossilQueue;
+
+	@BeforeEach
+	void setup() throws IOException {
+		file = directory.resolve("latest.log");
+		append(LogFileReader.MARKER + "/execute in minecraft:overworld run tp @s 1.00 64.00 2.00 3.00 -31.00\n");
+		NinjabrainBotPreferences preferences = new NinjabrainBotPreferences(new UnsavedPreferences());
+		preferences.logFilePath.set(file.toString());
+		preferences.useLogFile.set(true);
+		LogFileReader logFileReader = new LogFileReader(preferences, new AlwaysUnlocked());
+		throwQueue = new ArrayBlockingQueue<>(10);
+		fossilQueue = new ArrayBlockingQueue<>(10);
+		logFileReader.whenNewThrowInputed().subscribe(throwQueue::add);
+		logFileReader.whenNewFossilInputed().subscribe(fossilQueue::add);
+		thread = new Thread(logFileReader, "Log file reader");
+		thread.setDaemon(true);
+		thread.start();
+	}
+
+	@AfterEach
+	void tearDown() throws InterruptedException {
+		thread.interrupt();
+		thread.join(1000);
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "\n", "\r\n" })
+	void appendedLines_areInputted(String lineSeparator) throws IOException, InterruptedException {
+		// Wait for the reader to find the end of the file
+		Thread.sleep(LogFileReader.POLL_INTERVAL);
+		append("[12:00:00] [Render thread/INFO]: not a throw" + lineSeparator);
+		append(LogFileReader.MARKER + "/execute in minecraft:the_nether run tp @s 100.50 64.00 -200.50 45.00 -31.00" + lineSeparator + LogFileReader.MARKER + "/setblock 5 -40 12 ");
+		IThrow t = throwQueue.poll(5, TimeUnit.SECONDS);
+		assertEquals(100.5, t.x());
+		assertEquals(-200.5, t.z());
+		assertEquals(45.0, t.alpha());
+		assertEquals(true, t.isNether());
+		// The line that was in the file before is not inputted
+		assertNull(throwQueue.poll(LogFileReader.POLL_INTERVAL, TimeUnit.MILLISECONDS));
+		// The fossil is inputted when its line is complete
+		assertNull(fossilQueue.poll(LogFileReader.POLL_INTERVAL, TimeUnit.MILLISECONDS));
+		append("minecraft:bone_block" + lineSeparator);
+		assertEquals(new Fossil(5), fossilQueue.poll(5, TimeUnit.SECONDS));
+	}
+
+	@Test
+	void truncatedFile_isReadFromTheStart() throws IOException, InterruptedException {
+		Thread.sleep(LogFileReader.POLL_INTERVAL);
+		Files.write(file, (LogFileReader.MARKER + "10 20 30\n").getBytes(StandardCharsets.UTF_8));
+		IThrow t = throwQueue.poll(5, TimeUnit.SECONDS);
+		assertEquals(10.5, t.x());
+		assertEquals(20.5, t.z());
+		assertEquals(30.0, t.alpha());
+	}
+
+	@Test
+	void logPrefix_isRemoved() throws IOException, InterruptedException {
+		Thread.sleep(LogFileReader.POLL_INTERVAL);
+		append("[12:34:56] [Render thread/INFO]: " + LogFileReader.MARKER + "-100 200 -45\n");
+		IThrow t = throwQueue.poll(5, TimeUnit.SECONDS);
+		assertEquals(-99.5, t.x());
+		assertEquals(200.5, t.z());
+		assertEquals(-45.0, t.alpha());
+	}
+
+	@ParameterizedTest
+	@ValueSource(strings = { "10 20 30", "[12:34:56] [Render thread/INFO]: [CHAT] 10 20 30", "[12:34:56] [Render thread/INFO]: /execute in minecraft:overworld run tp @s 1.00 64.00 2.00 3.00 -31.00",
+			"[CHAT] " + LogFileReader.MARKER + "10 20 30" })
+	void linesWithoutMarker_areIgnored(String line) throws IOException, InterruptedException {
+		Thread.sleep(LogFileReader.POLL_INTERVAL);
+		append(line + "\n");
+		assertNull(throwQueue.poll(2 * LogFileReader.POLL_INTERVAL, TimeUnit.MILLISECONDS));
+	}
+
+	private void append(String string) throws IOException {
+		Files.write(file, string.getBytes(StandardCharsets.UTF_8), StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+	}
+
+}
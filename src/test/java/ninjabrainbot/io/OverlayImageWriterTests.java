@@ -0,0 +1,93 @@
+package ninjabrainbot.io;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Path;
+
+import javax.imageio.ImageIO;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+class OverlayImageWriterTests {
+
+	private static final long OLD_TIME = 1000000000000L;
+
+	@TempDir
+	Path directory;
+
+	File file;
+	OverlayImageWriter overlayImageWriter;
+
+	@BeforeEach
+	void setup() {
+		file = directory.resolve("nb-overlay.png").toFile();
+		overlayImageWriter = new OverlayImageWriter(file);
+	}
+
+	@AfterEach
+	void tearDown() {
+		overlayImageWriter.dispose();
+	}
+
+	@Test
+	void submittedImage_isWritten() throws IOException, InterruptedException {
+		submit(Color.RED);
+		overlayImageWriter.flush();
+		BufferedImage written = ImageIO.read(file);
+		assertEquals(40, written.getWidth());
+		assertEquals(30, written.getHeight());
+		assertEquals(Color.RED.getRGB(), written.getRGB(10, 10));
+		assertEquals(0, written.getRGB(39, 29) >>> 24);
+		assertFalse(new File(file.getPath() + ".tmp").exists());
+	}
+
+	@Test
+	void unchangedImage_isNotWrittenAgain() throws IOException, InterruptedException {
+		submit(Color.RED);
+		overlayImageWriter.flush();
+		assertTrue(file.setLastModified(OLD_TIME));
+
+		// The pooled image is reused, and has to be cleared before it is painted
+		submit(Color.RED);
+		overlayImageWriter.flush();
+		assertEquals(OLD_TIME, file.lastModified());
+
+		submit(Color.BLUE);
+		overlayImageWriter.flush();
+		assertNotEquals(OLD_TIME, file.lastModified());
+		assertEquals(Color.BLUE.getRGB(), ImageIO.read(file).getRGB(10, 10));
+	}
+
+	@Test
+	void deletedFile_isWrittenAgain() throws InterruptedException {
+		submit(Color.RED);
+		overlayImageWriter.delete();
+		overlayImageWriter.flush();
+		assertFalse(file.exists());
+
+		submit(Color.RED);
+		overlayImageWriter.flush();
+		assertTrue(file.exists());
+	}
+
+	private void submit(Color color) {
+		BufferedImage img = overlayImageWriter.acquire(40, 30);
+		Graphics2D g = img.createGraphics();
+		g.setColor(color);
+		g.fillRect(0, 0, 20, 20);
+		g.dispose();
+		overlayImageWriter.submit(img);
+	}
+
+}
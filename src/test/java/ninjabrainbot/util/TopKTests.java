@@ -0,0 +1,70 @@
+package ninjabrainbot.util;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Random;
+
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.junit.jupiter.params.provider.ValueSource;
+
+class TopKTests {
+
+	@ParameterizedTest
+	@CsvSource({ "0, 5", "1, 5", "5, 5", "100, 1", "100, 5", "1000, 100", "1000, 1000", "5000, 17" })
+	void largest_isSameAsPrefixOfFullSort(int n, int k) {
+		Random random = new Random(n + 31 * k);
+		double[] values = new double[n + 3];
+		for (int i = 0; i < n; i++) {
+			// Many ties, to check that they are broken by index
+			values[i] = random.nextInt(4) == 0 ? 0 : random.nextInt(50) / 50.0;
+		}
+		values[n] = 10; // Outside of the first n values, should be ignored
+
+		Integer[] sorted = new Integer[n];
+		for (int i = 0; i < n; i++) {
+			sorted[i] = i;
+		}
+		Arrays.sort(sorted, Comparator.<Integer>comparingDouble(i -> -values[i]).thenComparingInt(i -> i));
+		int[] expected = new int[Math.min(n, k)];
+		for (int i = 0; i < expected.length; i++) {
+			expected[i] = sorted[i];
+		}
+
+		assertArrayEquals(expected, TopK.largest(values, n, k));
+	}
+
+	@ParameterizedTest
+	@ValueSource(doubles = { 0.0, 0.1, 0.5, 0.9, 0.999, 1.0 })
+	void credibleSet_isSmallestSetCoveringProbability(double probability) {
+		Random random = new Random(1);
+		int n = 2000;
+		double[] values = new double[n];
+		double sum = 0;
+		for (int i = 0; i < n; i++) {
+			values[i] = Math.pow(random.nextDouble(), 8);
+			sum += values[i];
+		}
+		for (int i = 0; i < n; i++) {
+			values[i] /= sum;
+		}
+
+		int[] credibleSet = TopK.credibleSet(values, n, probability);
+		int[] largest = TopK.largest(values, n, n);
+
+		double total = 0;
+		for (int i = 0; i < credibleSet.length; i++) {
+			assertEquals(largest[i], credibleSet[i]);
+			total += values[credibleSet[i]];
+		}
+		if (credibleSet.length > 0 && credibleSet.length < n) {
+			assertTrue(total >= probability);
+			assertTrue(total - values[credibleSet[credibleSet.length - 1]] < probability, "Credible set is not minimal.");
+		}
+	}
+
+}